@@ -0,0 +1,65 @@
+package com.NumberGoUp;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// A full DisplayXpCalculator pass on its own, without the plugin or a client
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DisplayXpCalculatorBenchmark
+{
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    @Param({"NONE", "ALL_SKILLS", "COMBAT_ONLY", "NINETY_NINES_ONLY"})
+    public String resetMode;
+
+    @Param({"false", "true"})
+    public boolean virtualLevels;
+
+    private final DisplayXpCalculator calculator = new DisplayXpCalculator();
+    private final SkillStateTable state = new SkillStateTable();
+    private final int[] levels = new int[SKILL_COUNT];
+    private final int[] xp = new int[SKILL_COUNT];
+    private final int[] boosts = new int[SKILL_COUNT];
+
+    private CompiledSettings settings;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        InMemoryConfig config = new InMemoryConfig();
+        config.set("resetMode", NumberGoUpConfig.ResetMode.valueOf(resetMode));
+        config.set("xpModifier", 1.5);
+        config.set("virtualLevels", virtualLevels);
+        settings = CompiledSettings.compile(config.config());
+
+        Random random = new Random(5);
+        for (Skill skill : PluginHarness.SKILLS)
+        {
+            int realXp = Experience.getXpForLevel(40 + random.nextInt(60)) + random.nextInt(1000);
+            state.setReal(skill, realXp, Experience.getLevelForXp(realXp));
+            state.setSessionXp(skill, random.nextInt(2_000_000));
+        }
+    }
+
+    @Benchmark
+    public long computeAll()
+    {
+        return calculator.computeAll(state, settings, levels, xp, boosts);
+    }
+}
@@ -0,0 +1,132 @@
+package com.NumberGoUp;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import net.runelite.api.Client;
+import net.runelite.api.Experience;
+import net.runelite.api.GameState;
+import net.runelite.api.Skill;
+
+// In-memory stand-in for the game client: skill arrays, game state and tick count,
+// plus a count of queueChangedSkill calls. Anything else returns a zero value.
+class FakeClient
+{
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    final int[] realLevels = new int[SKILL_COUNT];
+    final int[] experiences = new int[SKILL_COUNT];
+    final int[] boostedLevels = new int[SKILL_COUNT];
+
+    GameState gameState = GameState.LOGGED_IN;
+    int tickCount;
+    long accountHash = 1L;
+
+    long queuedSkills;
+    long chatMessages;
+
+    private final Client client = (Client) Proxy.newProxyInstance(
+            FakeClient.class.getClassLoader(), new Class<?>[]{Client.class}, (proxy, method, args) -> invoke(method, args));
+
+    Client client()
+    {
+        return client;
+    }
+
+    // Set a skill's real values the way the game would
+    void setSkill(Skill skill, int xp, int boostedLevel)
+    {
+        int i = skill.ordinal();
+        experiences[i] = xp;
+        realLevels[i] = Experience.getLevelForXp(xp);
+        boostedLevels[i] = boostedLevel;
+    }
+
+    void reset()
+    {
+        Arrays.fill(realLevels, 0);
+        Arrays.fill(experiences, 0);
+        Arrays.fill(boostedLevels, 0);
+        queuedSkills = 0;
+        chatMessages = 0;
+        tickCount = 0;
+    }
+
+    private Object invoke(Method method, Object[] args)
+    {
+        switch (method.getName())
+        {
+            case "getRealSkillLevels":
+                return realLevels;
+            case "getSkillExperiences":
+                return experiences;
+            case "getBoostedSkillLevels":
+                return boostedLevels;
+            case "getSkillExperience":
+                return experiences[((Skill) args[0]).ordinal()];
+            case "getRealSkillLevel":
+                return realLevels[((Skill) args[0]).ordinal()];
+            case "getBoostedSkillLevel":
+                return boostedLevels[((Skill) args[0]).ordinal()];
+            case "getGameState":
+                return gameState;
+            case "getTickCount":
+                return tickCount;
+            case "getAccountHash":
+                return accountHash;
+            case "isClientThread":
+                return true;
+            case "queueChangedSkill":
+                queuedSkills++;
+                return null;
+            case "addChatMessage":
+                chatMessages++;
+                return null;
+            case "hashCode":
+                return System.identityHashCode(this);
+            case "equals":
+                return args[0] == client;
+            case "toString":
+                return "FakeClient";
+            default:
+                return zeroValue(method.getReturnType());
+        }
+    }
+
+    private static Object zeroValue(Class<?> type)
+    {
+        if (!type.isPrimitive() || type == void.class)
+        {
+            return null;
+        }
+        if (type == boolean.class)
+        {
+            return false;
+        }
+        if (type == long.class)
+        {
+            return 0L;
+        }
+        if (type == double.class)
+        {
+            return 0d;
+        }
+        if (type == float.class)
+        {
+            return 0f;
+        }
+        if (type == char.class)
+        {
+            return (char) 0;
+        }
+        if (type == byte.class)
+        {
+            return (byte) 0;
+        }
+        if (type == short.class)
+        {
+            return (short) 0;
+        }
+        return 0;
+    }
+}
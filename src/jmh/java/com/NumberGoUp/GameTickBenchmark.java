@@ -0,0 +1,65 @@
+package com.NumberGoUp;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// onGameTick with no XP changes in between, the common idle case, and with the game having
+// overwritten one skill's display values with its real ones
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameTickBenchmark
+{
+    @Param({"NONE", "ALL_SKILLS", "COMBAT_ONLY", "NINETY_NINES_ONLY"})
+    public String resetMode;
+
+    @Param({"false", "true"})
+    public boolean alwaysReapply;
+
+    private PluginHarness harness;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        harness = new PluginHarness();
+        harness.seedAccount(1);
+        harness.config.set("resetMode", NumberGoUpConfig.ResetMode.valueOf(resetMode));
+        harness.config.set("alwaysReapply", alwaysReapply);
+        harness.start();
+        harness.tick();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        harness.stop();
+    }
+
+    @Benchmark
+    public long idleTick()
+    {
+        harness.tick();
+        return harness.fakeClient.queuedSkills;
+    }
+
+    @Benchmark
+    public long clobberedTick()
+    {
+        harness.setRealXp(Skill.ATTACK, harness.getRealXp(Skill.ATTACK));
+        harness.tick();
+        return harness.fakeClient.queuedSkills;
+    }
+}
@@ -0,0 +1,182 @@
+package com.NumberGoUp;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import net.runelite.client.config.ConfigItem;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.events.ConfigChanged;
+import org.mockito.Mockito;
+
+// Config storage kept in a map, exposed both as a NumberGoUpConfig and as a ConfigManager.
+// Reads and writes through the ConfigManager are counted.
+class InMemoryConfig
+{
+    private final Map<String, String> values = new HashMap<>();
+    private final NumberGoUpConfig config;
+    private final ConfigManager configManager;
+
+    // RS profile the "logged in" account maps to
+    String rsProfileKey = "rsprofile.harness";
+
+    long reads;
+    long writes;
+
+    InMemoryConfig()
+    {
+        config = (NumberGoUpConfig) Proxy.newProxyInstance(
+                NumberGoUpConfig.class.getClassLoader(),
+                new Class<?>[]{NumberGoUpConfig.class},
+                (proxy, method, args) -> readConfigItem(proxy, method, args));
+        configManager = Mockito.mock(ConfigManager.class, invocation -> handle(invocation.getMethod(), invocation.getArguments()));
+    }
+
+    NumberGoUpConfig config()
+    {
+        return config;
+    }
+
+    ConfigManager configManager()
+    {
+        return configManager;
+    }
+
+    // Change a plugin setting, null unsetting it, returning the event the client would post for it
+    ConfigChanged set(String key, Object value)
+    {
+        String stored = value == null ? null : value instanceof Enum ? ((Enum<?>) value).name() : String.valueOf(value);
+        String old = stored == null
+                ? values.remove(key(StatePersister.CONFIG_GROUP, key))
+                : values.put(key(StatePersister.CONFIG_GROUP, key), stored);
+
+        ConfigChanged event = new ConfigChanged();
+        event.setGroup(StatePersister.CONFIG_GROUP);
+        event.setKey(key);
+        event.setOldValue(old);
+        event.setNewValue(stored);
+        return event;
+    }
+
+    // Set a value in the RS profile config, the way the plugin's own state is stored
+    void setProfile(String key, String value)
+    {
+        values.put(key(StatePersister.CONFIG_GROUP, rsProfileKey + "." + key), value);
+    }
+
+    String get(String group, String key)
+    {
+        return values.get(key(group, key));
+    }
+
+    Map<String, String> values()
+    {
+        return values;
+    }
+
+    void clear()
+    {
+        values.clear();
+        reads = 0;
+        writes = 0;
+    }
+
+    private Object readConfigItem(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        ConfigItem item = method.getAnnotation(ConfigItem.class);
+        String value = item != null ? values.get(key(StatePersister.CONFIG_GROUP, item.keyName())) : null;
+        if (value == null)
+        {
+            if (!method.isDefault())
+            {
+                return null;
+            }
+            return MethodHandles.privateLookupIn(NumberGoUpConfig.class, MethodHandles.lookup())
+                    .unreflectSpecial(method, NumberGoUpConfig.class)
+                    .bindTo(proxy)
+                    .invokeWithArguments(args == null ? new Object[0] : args);
+        }
+        return convert(value, method.getReturnType());
+    }
+
+    private Object handle(Method method, Object[] args)
+    {
+        // Overloads taking (group, profile, key) address a profile's value as "profile.key"
+        Class<?>[] types = method.getParameterTypes();
+        boolean profiled = types.length >= 3 && types[1] == String.class && types[2] == String.class;
+        switch (method.getName())
+        {
+            case "getConfiguration":
+            {
+                reads++;
+                if (profiled)
+                {
+                    return values.get(key((String) args[0], args[1] + "." + args[2]));
+                }
+                String value = values.get(key((String) args[0], (String) args[1]));
+                if (args.length == 3 && value != null)
+                {
+                    return convert(value, (Type) args[2]);
+                }
+                return value;
+            }
+            case "setConfiguration":
+                writes++;
+                if (profiled && args.length == 4)
+                {
+                    values.put(key((String) args[0], args[1] + "." + args[2]), String.valueOf(args[3]));
+                    return null;
+                }
+                values.put(key((String) args[0], (String) args[1]), String.valueOf(args[2]));
+                return null;
+            case "unsetConfiguration":
+                writes++;
+                if (profiled)
+                {
+                    values.remove(key((String) args[0], args[1] + "." + args[2]));
+                    return null;
+                }
+                values.remove(key((String) args[0], (String) args[1]));
+                return null;
+            case "getRSProfileKey":
+                return rsProfileKey;
+            case "getConfig":
+                return config;
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object convert(String value, Type type)
+    {
+        if (type == int.class || type == Integer.class)
+        {
+            return Integer.parseInt(value);
+        }
+        if (type == long.class || type == Long.class)
+        {
+            return Long.parseLong(value);
+        }
+        if (type == double.class || type == Double.class)
+        {
+            return Double.parseDouble(value);
+        }
+        if (type == boolean.class || type == Boolean.class)
+        {
+            return Boolean.parseBoolean(value);
+        }
+        if (type instanceof Class && ((Class<?>) type).isEnum())
+        {
+            return Enum.valueOf((Class<Enum>) type, value);
+        }
+        return value;
+    }
+
+    private static String key(String group, String key)
+    {
+        return group + "." + key;
+    }
+}
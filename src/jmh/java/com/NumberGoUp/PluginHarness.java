@@ -0,0 +1,261 @@
+package com.NumberGoUp;
+
+import com.google.inject.Guice;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import net.runelite.api.Client;
+import net.runelite.api.Experience;
+import net.runelite.api.GameState;
+import net.runelite.api.Skill;
+import net.runelite.api.events.GameTick;
+import net.runelite.api.events.StatChanged;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.config.ConfigManager;
+import net.runelite.client.ui.overlay.OverlayManager;
+import org.mockito.Mockito;
+
+// Runs a NumberGoUpPlugin headlessly against a FakeClient and an InMemoryConfig.
+// ClientThread.invoke and executor tasks run inline on the calling thread, while invokeLater is
+// queued until the next frame, like the client does, so StatChanged batches are drained together.
+class PluginHarness
+{
+    static final Skill[] SKILLS = skillsWithoutOverall();
+
+    private static final GameTick GAME_TICK = new GameTick();
+
+    final FakeClient fakeClient = new FakeClient();
+    final InMemoryConfig config = new InMemoryConfig();
+    final NumberGoUpPlugin plugin = new NumberGoUpPlugin();
+
+    // Work passed to ClientThread.invokeLater, run by runFrame
+    private final Deque<Object> invokeLater = new ArrayDeque<>();
+
+    // The account's real XP, which the game writes back over the plugin's display values
+    private final int[] realXp = new int[Skill.values().length];
+
+    // Throwaway journal and state log directories, deleted by stop()
+    private final File journalDir = tempDirectory();
+    private final File walDir = tempDirectory();
+
+    PluginHarness()
+    {
+        // Journal segments go to a throwaway directory rather than the RuneLite directory, and the
+        // state log is built but never written so benchmarks don't time an fsync every tick
+        XpJournal journal = new XpJournal(new InlineExecutor(), journalDir);
+        StateWal wal = new DiscardingStateWal(walDir);
+        PluginMetrics metrics = new PluginMetrics();
+
+        ClientThread clientThread = Mockito.mock(ClientThread.class, invocation ->
+        {
+            boolean later = invocation.getMethod().getName().equals("invokeLater");
+            for (Object argument : invocation.getArguments())
+            {
+                if (later && (argument instanceof Runnable || argument instanceof BooleanSupplier))
+                {
+                    invokeLater.add(argument);
+                }
+                else if (argument instanceof Runnable)
+                {
+                    ((Runnable) argument).run();
+                }
+                else if (argument instanceof BooleanSupplier)
+                {
+                    ((BooleanSupplier) argument).getAsBoolean();
+                }
+            }
+            return null;
+        });
+
+        Guice.createInjector(binder ->
+        {
+            binder.bind(NumberGoUpPlugin.class).toInstance(plugin);
+            binder.bind(Client.class).toInstance(fakeClient.client());
+            binder.bind(ClientThread.class).toInstance(clientThread);
+            binder.bind(ConfigManager.class).toInstance(config.configManager());
+            binder.bind(PluginMetrics.class).toInstance(metrics);
+            binder.bind(NumberGoUpConfig.class).toInstance(ConfigReadCounter.wrap(config.config(), metrics));
+            binder.bind(ScheduledExecutorService.class).toInstance(new InlineExecutor());
+            binder.bind(XpJournal.class).toInstance(journal);
+            binder.bind(StateWal.class).toInstance(wal);
+            binder.bind(OverlayManager.class).toInstance(Mockito.mock(OverlayManager.class));
+        });
+    }
+
+    // Give every skill a deterministic, realistic amount of XP
+    void seedAccount(long seed)
+    {
+        Random random = new Random(seed);
+        for (Skill skill : SKILLS)
+        {
+            int level = 40 + random.nextInt(60);
+            int xp = Experience.getXpForLevel(level) + random.nextInt(1000);
+            setRealXp(skill, xp);
+        }
+    }
+
+    void setRealXp(Skill skill, int xp)
+    {
+        realXp[skill.ordinal()] = xp;
+        fakeClient.setSkill(skill, xp, Experience.getLevelForXp(xp));
+    }
+
+    int getRealXp(Skill skill)
+    {
+        return realXp[skill.ordinal()];
+    }
+
+    void start() throws Exception
+    {
+        fakeClient.gameState = GameState.LOGGED_IN;
+        plugin.startUp();
+    }
+
+    void stop() throws Exception
+    {
+        try
+        {
+            plugin.shutDown();
+        }
+        finally
+        {
+            deleteRecursively(journalDir);
+            deleteRecursively(walDir);
+        }
+    }
+
+    // Run the work queued with invokeLater before this frame, as the client does once per frame.
+    // A BooleanSupplier returning false stays queued for the next frame.
+    void runFrame()
+    {
+        for (int n = invokeLater.size(); n > 0; n--)
+        {
+            Object task = invokeLater.poll();
+            if (task instanceof Runnable)
+            {
+                ((Runnable) task).run();
+            }
+            else if (!((BooleanSupplier) task).getAsBoolean())
+            {
+                invokeLater.add(task);
+            }
+        }
+    }
+
+    // A game tick, after the frames since the last one have run what was queued
+    void tick()
+    {
+        runFrame();
+        fakeClient.tickCount++;
+        plugin.onGameTick(GAME_TICK);
+    }
+
+    // Gain XP the way the game reports it: real values land in the client, then StatChanged fires
+    void gainXp(Skill skill, int amount)
+    {
+        int xp = realXp[skill.ordinal()] + amount;
+        setRealXp(skill, xp);
+        plugin.onStatChanged(new StatChanged(skill, xp, Experience.getLevelForXp(xp), Experience.getLevelForXp(xp)));
+    }
+
+    // Report a stat exactly as recorded
+    void statChanged(Skill skill, int xp, int boostedLevel)
+    {
+        setRealXp(skill, xp);
+        fakeClient.boostedLevels[skill.ordinal()] = boostedLevel;
+        plugin.onStatChanged(new StatChanged(skill, xp, Experience.getLevelForXp(xp), boostedLevel));
+    }
+
+    void configure(String key, Object value)
+    {
+        plugin.onConfigChanged(config.set(key, value));
+    }
+
+    private static File tempDirectory()
+    {
+        try
+        {
+            return Files.createTempDirectory("ngu-harness").toFile();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Children before parents, so every directory is empty by the time it is deleted
+    private static void deleteRecursively(File dir) throws IOException
+    {
+        if (!dir.exists())
+        {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir.toPath()))
+        {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+            {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static Skill[] skillsWithoutOverall()
+    {
+        Skill[] all = Skill.values();
+        Skill[] skills = new Skill[all.length - 1];
+        int n = 0;
+        for (Skill skill : all)
+        {
+            if (skill != Skill.OVERALL)
+            {
+                skills[n++] = skill;
+            }
+        }
+        return skills;
+    }
+
+    // Encodes and batches state log records as usual but drops each batch instead of writing it
+    private static final class DiscardingStateWal extends StateWal
+    {
+        DiscardingStateWal(File root)
+        {
+            super(new InlineExecutor(), root);
+        }
+
+        @Override
+        void write(String profileKey, ByteBuffer batch)
+        {
+        }
+
+        @Override
+        void rewrite(String profileKey, ByteBuffer buffer)
+        {
+        }
+    }
+
+    // Runs submitted tasks immediately, keeping persistence deterministic and on one thread
+    private static final class InlineExecutor extends ScheduledThreadPoolExecutor
+    {
+        InlineExecutor()
+        {
+            super(1);
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            command.run();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.NumberGoUp;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// onConfigChanged("resetMode") flipping back and forth between two modes
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResetModeBenchmark
+{
+    @Param({"ALL_SKILLS:COMBAT_ONLY", "CUSTOM:NON_COMBAT_ONLY", "PER_SKILL_THRESHOLD:NINETY_NINES_ONLY", "NONE:ALL_SKILLS"})
+    public String transition;
+
+    @Param({"false", "true"})
+    public boolean keepProgress;
+
+    private PluginHarness harness;
+    private NumberGoUpConfig.ResetMode from;
+    private NumberGoUpConfig.ResetMode to;
+    private boolean flipped;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        String[] modes = transition.split(":");
+        from = NumberGoUpConfig.ResetMode.valueOf(modes[0]);
+        to = NumberGoUpConfig.ResetMode.valueOf(modes[1]);
+
+        harness = new PluginHarness();
+        harness.seedAccount(4);
+        harness.config.set("resetMode", from);
+        harness.config.set("keepProgressBetweenModes", keepProgress);
+        for (Skill skill : PluginHarness.SKILLS)
+        {
+            String name = skill.name().toLowerCase();
+            harness.config.set(name + "Threshold", 500_000);
+            harness.config.set("reset" + name.substring(0, 1).toUpperCase() + name.substring(1), skill.ordinal() % 3 == 0);
+        }
+        harness.start();
+
+        // Some session progress so keeping it between modes has work to do
+        for (Skill skill : PluginHarness.SKILLS)
+        {
+            harness.gainXp(skill, 10_000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        harness.stop();
+    }
+
+    @Benchmark
+    public long switchMode()
+    {
+        flipped = !flipped;
+        harness.configure("resetMode", flipped ? to : from);
+        return harness.fakeClient.queuedSkills;
+    }
+}
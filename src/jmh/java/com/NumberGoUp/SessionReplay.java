@@ -0,0 +1,190 @@
+package com.NumberGoUp;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import net.runelite.api.Skill;
+
+// Replays a SessionRecording into a headless plugin as fast as possible, then reports the final
+// displayed stats, the config writes made and how long each kind of event took to handle.
+//
+// Usage: ./gradlew replay -Precording=path/to/session.ngur
+public class SessionReplay implements SessionRecording.Listener
+{
+    private final PluginHarness harness = new PluginHarness();
+
+    private final EventTiming stats = new EventTiming("StatChanged");
+    private final EventTiming ticks = new EventTiming("GameTick");
+    private final EventTiming configs = new EventTiming("ConfigChanged");
+
+    // What the skills tab showed at the end of the session, before shutdown restored real values
+    private final int[] finalLevels = new int[Skill.values().length];
+    private final int[] finalXp = new int[Skill.values().length];
+    private final int[] finalBoosted = new int[Skill.values().length];
+
+    private boolean started;
+    private long firstEventMs = -1;
+    private long lastEventMs;
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length != 1)
+        {
+            System.err.println("Usage: SessionReplay <recording>");
+            System.exit(1);
+        }
+
+        SessionReplay replay = new SessionReplay();
+        long events;
+        long begin = System.nanoTime();
+        try (InputStream in = new FileInputStream(args[0]))
+        {
+            events = SessionRecording.read(in, replay);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+
+        replay.report(events, elapsedNanos);
+    }
+
+    @Override
+    public void start(long timeMs) throws Exception
+    {
+        observe(timeMs);
+        harness.start();
+        started = true;
+    }
+
+    @Override
+    public void stat(long timeMs, Skill skill, int xp, int boostedLevel)
+    {
+        observe(timeMs);
+        if (!started)
+        {
+            harness.setRealXp(skill, xp);
+            harness.fakeClient.boostedLevels[skill.ordinal()] = boostedLevel;
+            return;
+        }
+
+        long begin = System.nanoTime();
+        harness.statChanged(skill, xp, boostedLevel);
+        stats.record(System.nanoTime() - begin);
+    }
+
+    @Override
+    public void tick(long timeMs)
+    {
+        observe(timeMs);
+        if (!started)
+        {
+            return;
+        }
+
+        long begin = System.nanoTime();
+        harness.tick();
+        ticks.record(System.nanoTime() - begin);
+    }
+
+    @Override
+    public void config(long timeMs, String key, String value)
+    {
+        observe(timeMs);
+
+        // The replayed plugin must not start recording itself
+        if (key.equals("recordSession"))
+        {
+            return;
+        }
+
+        if (!started)
+        {
+            if (value != null && key.equals(StatePersister.STATE_KEY))
+            {
+                harness.config.setProfile(key, value);
+            }
+            else if (value != null)
+            {
+                harness.config.set(key, value);
+            }
+            return;
+        }
+
+        long begin = System.nanoTime();
+        harness.configure(key, value);
+        configs.record(System.nanoTime() - begin);
+    }
+
+    private void observe(long timeMs)
+    {
+        if (firstEventMs < 0)
+        {
+            firstEventMs = timeMs;
+        }
+        lastEventMs = timeMs;
+    }
+
+    private void report(long events, long elapsedNanos) throws Exception
+    {
+        // Stats reported after the last tick are still queued for the next frame
+        harness.runFrame();
+        FakeClient client = harness.fakeClient;
+        System.arraycopy(client.realLevels, 0, finalLevels, 0, finalLevels.length);
+        System.arraycopy(client.experiences, 0, finalXp, 0, finalXp.length);
+        System.arraycopy(client.boostedLevels, 0, finalBoosted, 0, finalBoosted.length);
+
+        // Stop the plugin first so its final flush is counted
+        long writesBeforeStop = harness.config.writes;
+        harness.stop();
+
+        long recordedMs = lastEventMs - Math.max(firstEventMs, 0);
+        double elapsedMs = elapsedNanos / 1e6;
+        System.out.printf("Replayed %d events covering %.1f minutes in %.1f ms (%.0fx real time)%n",
+                events, recordedMs / 60000.0, elapsedMs, elapsedMs > 0 ? recordedMs / elapsedMs : 0);
+        System.out.println();
+
+        System.out.printf("%-14s %10s %12s %12s %12s%n", "Event", "Count", "Total ms", "Mean us", "Max us");
+        for (EventTiming timing : new EventTiming[]{stats, ticks, configs})
+        {
+            timing.print();
+        }
+        System.out.println();
+
+        System.out.printf("Config reads: %d, writes: %d (%d during the session, %d on shutdown)%n",
+                harness.config.reads, harness.config.writes, writesBeforeStop, harness.config.writes - writesBeforeStop);
+        System.out.printf("queueChangedSkill calls: %d, chat messages: %d%n",
+                client.queuedSkills, client.chatMessages);
+        System.out.println();
+
+        System.out.printf("%-14s %6s %12s %8s %12s%n", "Skill", "Level", "XP", "Boosted", "Real XP");
+        for (Skill skill : PluginHarness.SKILLS)
+        {
+            int i = skill.ordinal();
+            System.out.printf("%-14s %6d %12d %8d %12d%n", skill.getName(),
+                    finalLevels[i], finalXp[i], finalBoosted[i], harness.getRealXp(skill));
+        }
+    }
+
+    private static final class EventTiming
+    {
+        private final String name;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        EventTiming(String name)
+        {
+            this.name = name;
+        }
+
+        void record(long nanos)
+        {
+            count++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        void print()
+        {
+            System.out.printf("%-14s %10d %12.2f %12.2f %12.2f%n", name, count, totalNanos / 1e6,
+                    count == 0 ? 0 : totalNanos / 1e3 / count, maxNanos / 1e3);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.NumberGoUp;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// onStatChanged for a small XP drop, rotating through every skill, and a melee hit's XP drops drained
+// together on the next frame, in each reset mode
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StatChangedBenchmark
+{
+    @Param({"NONE", "ALL_SKILLS", "NINETY_NINES_ONLY", "COMBAT_ONLY", "NON_COMBAT_ONLY", "PER_SKILL_THRESHOLD", "CUSTOM"})
+    public String resetMode;
+
+    private PluginHarness harness;
+    private int next;
+
+    // Restarted every iteration so accumulated XP stays well below the cap
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception
+    {
+        harness = new PluginHarness();
+        harness.seedAccount(2);
+        harness.config.set("resetMode", NumberGoUpConfig.ResetMode.valueOf(resetMode));
+        for (Skill skill : PluginHarness.SKILLS)
+        {
+            String name = skill.name().toLowerCase();
+            harness.config.set(name + "Threshold", 250_000);
+            harness.config.set("reset" + name.substring(0, 1).toUpperCase() + name.substring(1), skill.ordinal() % 2 == 0);
+        }
+        harness.start();
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception
+    {
+        harness.stop();
+    }
+
+    // Only buffers the drop, its drain is left to the next frame
+    @Benchmark
+    public long xpDrop()
+    {
+        Skill skill = PluginHarness.SKILLS[next++ % PluginHarness.SKILLS.length];
+        harness.gainXp(skill, 35);
+        return harness.fakeClient.queuedSkills;
+    }
+
+    // The StatChanged events of one hit and the single drain that applies them
+    @Benchmark
+    public long combatHit()
+    {
+        harness.gainXp(Skill.STRENGTH, 40);
+        harness.gainXp(Skill.HITPOINTS, 13);
+        harness.runFrame();
+        return harness.fakeClient.queuedSkills;
+    }
+}
@@ -0,0 +1,61 @@
+package com.NumberGoUp;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.Skill;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// handleThresholdMode where every XP drop crosses one or more thresholds
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ThresholdBenchmark
+{
+    private static final int THRESHOLD = 100;
+
+    // Thresholds crossed per XP drop
+    @Param({"1", "4", "50"})
+    public int crossings;
+
+    private PluginHarness harness;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception
+    {
+        harness = new PluginHarness();
+        harness.seedAccount(3);
+        harness.config.set("resetMode", NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD);
+        for (Skill skill : PluginHarness.SKILLS)
+        {
+            harness.config.set(skill.name().toLowerCase() + "Threshold", THRESHOLD);
+        }
+        harness.start();
+        next = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception
+    {
+        harness.stop();
+    }
+
+    @Benchmark
+    public long crossThresholds()
+    {
+        Skill skill = PluginHarness.SKILLS[next++ % PluginHarness.SKILLS.length];
+        harness.gainXp(skill, THRESHOLD * crossings);
+        return harness.fakeClient.chatMessages;
+    }
+}
@@ -0,0 +1,335 @@
+package com.NumberGoUp;
+
+import net.runelite.api.Skill;
+
+// Immutable snapshot of the plugin config, indexed by skill ordinal.
+// Built once per config change so the tick and stat paths never go through the config proxy.
+final class CompiledSettings
+{
+    private static final Skill[] SKILLS = Skill.values();
+
+    // Multipliers are compiled to fixed point, 1000 being 1x
+    static final long MULTIPLIER_SCALE = 1000;
+
+    private final NumberGoUpConfig.ResetMode resetMode;
+    private final boolean keepProgressBetweenModes;
+    private final boolean alwaysReapply;
+    private final boolean virtualLevels;
+
+    // Skills reset by the current mode, every mode compiles to a rule. Null only while an invalid
+    // rule has nothing to fall back on, until the profile's state provides one.
+    private final ResetRule resetRule;
+
+    // Why the configured rule couldn't be used, null if it could
+    private final String ruleError;
+    private final MilestoneSchedule[] schedules;
+    private final long[] multipliers;
+
+    private CompiledSettings(NumberGoUpConfig.ResetMode resetMode, boolean keepProgressBetweenModes, boolean alwaysReapply, boolean virtualLevels,
+                             ResetRule resetRule, String ruleError, MilestoneSchedule[] schedules,
+                             long[] multipliers)
+    {
+        this.resetMode = resetMode;
+        this.keepProgressBetweenModes = keepProgressBetweenModes;
+        this.alwaysReapply = alwaysReapply;
+        this.virtualLevels = virtualLevels;
+        this.resetRule = resetRule;
+        this.ruleError = ruleError;
+        this.schedules = schedules;
+        this.multipliers = multipliers;
+    }
+
+    static CompiledSettings compile(NumberGoUpConfig config)
+    {
+        return compile(config, null);
+    }
+
+    // Compile the config, keeping previous's reset rule if the configured rule is invalid
+    static CompiledSettings compile(NumberGoUpConfig config, CompiledSettings previous)
+    {
+        NumberGoUpConfig.ResetMode resetMode = config.resetMode();
+        long globalModifier = toFixedPoint(config.xpModifier());
+
+        MilestoneSchedule[] schedules = new MilestoneSchedule[SKILLS.length];
+        long[] multipliers = new long[SKILLS.length];
+        long customMask = 0;
+        long thresholdMask = 0;
+
+        // Anything but INTERVAL is one schedule shared by every skill. An empty or invalid
+        // spec falls back to the per-skill intervals.
+        NumberGoUpConfig.ScheduleType scheduleType = config.milestoneSchedule();
+        MilestoneSchedule shared = null;
+        if (scheduleType != NumberGoUpConfig.ScheduleType.INTERVAL)
+        {
+            shared = MilestoneSchedule.parse(scheduleType, config.milestoneSpec());
+        }
+
+        for (Skill skill : SKILLS)
+        {
+            int i = skill.ordinal();
+            multipliers[i] = globalModifier;
+            if (skill == Skill.OVERALL)
+            {
+                continue;
+            }
+
+            int threshold = readThreshold(config, skill);
+            Double override = readMultiplierOverride(config, skill);
+            if (override != null)
+            {
+                multipliers[i] = toFixedPoint(override);
+            }
+
+            if (readCustomReset(config, skill))
+            {
+                customMask |= 1L << i;
+            }
+            schedules[i] = shared != null ? shared : MilestoneSchedule.interval(threshold);
+            if (schedules[i] != null)
+            {
+                thresholdMask |= 1L << i;
+            }
+        }
+
+        ResetRule resetRule;
+        String ruleError = null;
+        switch (resetMode)
+        {
+            case ALL_SKILLS:
+                resetRule = ResetRule.ofMask(ResetRule.ALL_MASK);
+                break;
+            case NINETY_NINES_ONLY:
+                resetRule = ResetRule.parse("realLevel >= 99");
+                break;
+            case COMBAT_ONLY:
+                resetRule = ResetRule.ofMask(ResetRule.COMBAT_MASK);
+                break;
+            case NON_COMBAT_ONLY:
+                resetRule = ResetRule.ofMask(ResetRule.ALL_MASK & ~ResetRule.COMBAT_MASK);
+                break;
+            case CUSTOM:
+                resetRule = ResetRule.ofMask(customMask);
+                break;
+            case PER_SKILL_THRESHOLD:
+                resetRule = ResetRule.ofMask(thresholdMask);
+                break;
+            case RULE:
+                try
+                {
+                    resetRule = ResetRule.parse(config.resetRule());
+                }
+                catch (IllegalArgumentException e)
+                {
+                    // Resetting nothing would wipe every skill's progress over a typo, so the
+                    // skills reset so far stay reset until the rule is fixed
+                    resetRule = previous != null ? previous.resetRule : null;
+                    ruleError = e.getMessage();
+                }
+                break;
+            case NONE:
+            default:
+                resetRule = ResetRule.ofMask(0);
+                break;
+        }
+
+        return new CompiledSettings(resetMode, config.keepProgressBetweenModes(), config.alwaysReapply(), config.virtualLevels(),
+                resetRule, ruleError, schedules, multipliers);
+    }
+
+    NumberGoUpConfig.ResetMode getResetMode()
+    {
+        return resetMode;
+    }
+
+    boolean isKeepProgressBetweenModes()
+    {
+        return keepProgressBetweenModes;
+    }
+
+    boolean isAlwaysReapply()
+    {
+        return alwaysReapply;
+    }
+
+    // Whether levels past 99 are shown
+    boolean isVirtualLevels()
+    {
+        return virtualLevels;
+    }
+
+    // Determine if a skill should be reset, a bit test for fixed masks and a short search for rules
+    boolean shouldReset(Skill skill, int realXp)
+    {
+        return resetRule != null && resetRule.matches(skill, realXp);
+    }
+
+    // False if the configured rule is invalid and there was no earlier rule to keep
+    boolean hasResetRule()
+    {
+        return resetRule != null;
+    }
+
+    // The same settings with another reset rule
+    CompiledSettings withResetRule(ResetRule resetRule)
+    {
+        return new CompiledSettings(resetMode, keepProgressBetweenModes, alwaysReapply, virtualLevels,
+                resetRule, ruleError, schedules, multipliers);
+    }
+
+    // Why the configured reset rule is invalid, null if it is fine or not in use
+    String getRuleError()
+    {
+        return ruleError;
+    }
+
+    // Reset points of a skill in PER_SKILL_THRESHOLD mode, null if it never resets
+    MilestoneSchedule getSchedule(Skill skill)
+    {
+        return schedules[skill.ordinal()];
+    }
+
+    // Multiply XP by a skill's multiplier, saturating instead of overflowing
+    long applyMultiplier(Skill skill, long xp)
+    {
+        long multiplier = multipliers[skill.ordinal()];
+        if (xp > Long.MAX_VALUE / multiplier)
+        {
+            return Long.MAX_VALUE;
+        }
+        if (xp < Long.MIN_VALUE / multiplier)
+        {
+            return Long.MIN_VALUE;
+        }
+        return xp * multiplier / MULTIPLIER_SCALE;
+    }
+
+    private static long toFixedPoint(double multiplier)
+    {
+        // Never below 1x, like the config range, which also keeps the divisions above safe
+        return Math.max(MULTIPLIER_SCALE, Math.round(multiplier * MULTIPLIER_SCALE));
+    }
+
+    // Check if a skill should be reset in Custom mode
+    private static boolean readCustomReset(NumberGoUpConfig config, Skill skill)
+    {
+        switch (skill)
+        {
+            case ATTACK: return config.resetAttack();
+            case STRENGTH: return config.resetStrength();
+            case DEFENCE: return config.resetDefence();
+            case RANGED: return config.resetRanged();
+            case PRAYER: return config.resetPrayer();
+            case MAGIC: return config.resetMagic();
+            case RUNECRAFT: return config.resetRunecraft();
+            case CONSTRUCTION: return config.resetConstruction();
+            case HITPOINTS: return config.resetHitpoints();
+            case AGILITY: return config.resetAgility();
+            case HERBLORE: return config.resetHerblore();
+            case THIEVING: return config.resetThieving();
+            case CRAFTING: return config.resetCrafting();
+            case FLETCHING: return config.resetFletching();
+            case SLAYER: return config.resetSlayer();
+            case HUNTER: return config.resetHunter();
+            case MINING: return config.resetMining();
+            case SMITHING: return config.resetSmithing();
+            case FISHING: return config.resetFishing();
+            case COOKING: return config.resetCooking();
+            case FIREMAKING: return config.resetFiremaking();
+            case WOODCUTTING: return config.resetWoodcutting();
+            case FARMING: return config.resetFarming();
+            case SAILING: return config.resetSailing();
+            default: return false;
+        }
+    }
+
+    // Get threshold for a specific skill
+    private static int readThreshold(NumberGoUpConfig config, Skill skill)
+    {
+        switch (skill)
+        {
+            case ATTACK: return config.attackThreshold();
+            case STRENGTH: return config.strengthThreshold();
+            case DEFENCE: return config.defenceThreshold();
+            case RANGED: return config.rangedThreshold();
+            case PRAYER: return config.prayerThreshold();
+            case MAGIC: return config.magicThreshold();
+            case RUNECRAFT: return config.runecraftThreshold();
+            case CONSTRUCTION: return config.constructionThreshold();
+            case HITPOINTS: return config.hitpointsThreshold();
+            case AGILITY: return config.agilityThreshold();
+            case HERBLORE: return config.herbloreThreshold();
+            case THIEVING: return config.thievingThreshold();
+            case CRAFTING: return config.craftingThreshold();
+            case FLETCHING: return config.fletchingThreshold();
+            case SLAYER: return config.slayerThreshold();
+            case HUNTER: return config.hunterThreshold();
+            case MINING: return config.miningThreshold();
+            case SMITHING: return config.smithingThreshold();
+            case FISHING: return config.fishingThreshold();
+            case COOKING: return config.cookingThreshold();
+            case FIREMAKING: return config.firemakingThreshold();
+            case WOODCUTTING: return config.woodcuttingThreshold();
+            case FARMING: return config.farmingThreshold();
+            case SAILING: return config.sailingThreshold();
+            default: return 0;
+        }
+    }
+
+    // Get the per-skill XP modifier if its override is enabled, null to use the global modifier
+    private static Double readMultiplierOverride(NumberGoUpConfig config, Skill skill)
+    {
+        switch (skill)
+        {
+            case ATTACK:
+                return config.overrideAttack() ? config.attackMultiplier() : null;
+            case STRENGTH:
+                return config.overrideStrength() ? config.strengthMultiplier() : null;
+            case DEFENCE:
+                return config.overrideDefence() ? config.defenceMultiplier() : null;
+            case RANGED:
+                return config.overrideRanged() ? config.rangedMultiplier() : null;
+            case PRAYER:
+                return config.overridePrayer() ? config.prayerMultiplier() : null;
+            case MAGIC:
+                return config.overrideMagic() ? config.magicMultiplier() : null;
+            case RUNECRAFT:
+                return config.overrideRunecraft() ? config.runecraftMultiplier() : null;
+            case CONSTRUCTION:
+                return config.overrideConstruction() ? config.constructionMultiplier() : null;
+            case HITPOINTS:
+                return config.overrideHitpoints() ? config.hitpointsMultiplier() : null;
+            case AGILITY:
+                return config.overrideAgility() ? config.agilityMultiplier() : null;
+            case HERBLORE:
+                return config.overrideHerblore() ? config.herbloreMultiplier() : null;
+            case THIEVING:
+                return config.overrideThieving() ? config.thievingMultiplier() : null;
+            case CRAFTING:
+                return config.overrideCrafting() ? config.craftingMultiplier() : null;
+            case FLETCHING:
+                return config.overrideFletching() ? config.fletchingMultiplier() : null;
+            case SLAYER:
+                return config.overrideSlayer() ? config.slayerMultiplier() : null;
+            case HUNTER:
+                return config.overrideHunter() ? config.hunterMultiplier() : null;
+            case MINING:
+                return config.overrideMining() ? config.miningMultiplier() : null;
+            case SMITHING:
+                return config.overrideSmithing() ? config.smithingMultiplier() : null;
+            case FISHING:
+                return config.overrideFishing() ? config.fishingMultiplier() : null;
+            case COOKING:
+                return config.overrideCooking() ? config.cookingMultiplier() : null;
+            case FIREMAKING:
+                return config.overrideFiremaking() ? config.firemakingMultiplier() : null;
+            case WOODCUTTING:
+                return config.overrideWoodcutting() ? config.woodcuttingMultiplier() : null;
+            case FARMING:
+                return config.overrideFarming() ? config.farmingMultiplier() : null;
+            case SAILING:
+                return config.overrideSailing() ? config.sailingMultiplier() : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.NumberGoUp;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+// Wraps the plugin config so every item read through it is counted as it happens, whether it is
+// compiling the settings or an overlay reading an item every frame.
+final class ConfigReadCounter implements InvocationHandler
+{
+    private final NumberGoUpConfig config;
+    private final PluginMetrics metrics;
+
+    private ConfigReadCounter(NumberGoUpConfig config, PluginMetrics metrics)
+    {
+        this.config = config;
+        this.metrics = metrics;
+    }
+
+    static NumberGoUpConfig wrap(NumberGoUpConfig config, PluginMetrics metrics)
+    {
+        return (NumberGoUpConfig) Proxy.newProxyInstance(NumberGoUpConfig.class.getClassLoader(),
+                new Class<?>[]{NumberGoUpConfig.class}, new ConfigReadCounter(config, metrics));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+        // equals, hashCode and toString aren't config items
+        if (method.getDeclaringClass() != Object.class)
+        {
+            metrics.increment(PluginMetrics.Counter.CONFIG_READS);
+        }
+
+        try
+        {
+            return method.invoke(config, args);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.NumberGoUp;
+
+import javax.inject.Singleton;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+
+// Total level, total XP and combat level of the values the skills tab is showing.
+// Kept up to date by applying each skill's change as it is rendered, so nothing is ever re-summed,
+// and the combat level is only recalculated when a combat skill's level moves.
+@Singleton
+class DisplayTotals
+{
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    private final int[] levels = new int[SKILL_COUNT];
+    private final int[] xp = new int[SKILL_COUNT];
+    private long present;
+
+    private int totalLevel;
+    private long totalXp;
+    private int combatLevel;
+
+    // Apply one skill's displayed values
+    void set(Skill skill, int level, int skillXp)
+    {
+        int i = skill.ordinal();
+        long bit = 1L << i;
+        if (skill == Skill.OVERALL || ((present & bit) != 0 && levels[i] == level && xp[i] == skillXp))
+        {
+            return;
+        }
+
+        int levelDelta = level - levels[i];
+        totalLevel += levelDelta;
+        totalXp += skillXp - xp[i];
+        levels[i] = level;
+        xp[i] = skillXp;
+        present |= bit;
+
+        if ((ResetRule.COMBAT_MASK & bit) != 0 && levelDelta != 0)
+        {
+            combatLevel = Experience.getCombatLevel(
+                    levels[Skill.ATTACK.ordinal()], levels[Skill.STRENGTH.ordinal()],
+                    levels[Skill.DEFENCE.ordinal()], levels[Skill.HITPOINTS.ordinal()],
+                    levels[Skill.MAGIC.ordinal()], levels[Skill.RANGED.ordinal()],
+                    levels[Skill.PRAYER.ordinal()]);
+        }
+    }
+
+    void clear()
+    {
+        for (int i = 0; i < SKILL_COUNT; i++)
+        {
+            levels[i] = 0;
+            xp[i] = 0;
+        }
+        present = 0;
+        totalLevel = 0;
+        totalXp = 0;
+        combatLevel = 0;
+    }
+
+    // Whether every combat skill has been rendered, before that the combat level is meaningless
+    boolean hasCombatLevel()
+    {
+        return (present & ResetRule.COMBAT_MASK) == ResetRule.COMBAT_MASK;
+    }
+
+    boolean isEmpty()
+    {
+        return present == 0;
+    }
+
+    int getTotalLevel()
+    {
+        return totalLevel;
+    }
+
+    long getTotalXp()
+    {
+        return totalXp;
+    }
+
+    int getCombatLevel()
+    {
+        return combatLevel;
+    }
+}
@@ -0,0 +1,53 @@
+package com.NumberGoUp;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import javax.inject.Inject;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+// Total level, total XP and combat level of the display values
+class DisplayTotalsOverlay extends OverlayPanel
+{
+    private final DisplayTotals totals;
+
+    @Inject
+    private DisplayTotalsOverlay(NumberGoUpPlugin plugin, DisplayTotals totals)
+    {
+        super(plugin);
+        this.totals = totals;
+        setPosition(OverlayPosition.TOP_LEFT);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        if (totals.isEmpty())
+        {
+            return null;
+        }
+
+        panelComponent.getChildren().add(TitleComponent.builder()
+                .text("Number Go Up!")
+                .build());
+        panelComponent.getChildren().add(LineComponent.builder()
+                .left("Total level")
+                .right(Integer.toString(totals.getTotalLevel()))
+                .build());
+        panelComponent.getChildren().add(LineComponent.builder()
+                .left("Total XP")
+                .right(String.format("%,d", totals.getTotalXp()))
+                .build());
+        if (totals.hasCombatLevel())
+        {
+            panelComponent.getChildren().add(LineComponent.builder()
+                    .left("Combat level")
+                    .right(Integer.toString(totals.getCombatLevel()))
+                    .build());
+        }
+
+        return super.render(graphics);
+    }
+}
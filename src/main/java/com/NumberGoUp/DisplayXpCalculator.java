@@ -0,0 +1,145 @@
+package com.NumberGoUp;
+
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+
+// The display math on its own: turns the skill state and compiled settings into the levels, XP
+// and boosts the skills tab should show. Results go into caller owned arrays indexed by
+// Skill.ordinal(), so a full pass allocates nothing and never touches the client or config.
+class DisplayXpCalculator
+{
+    // Hitpoints starts at level 10 (1154 XP), not level 1 (0 XP)
+    static final int HITPOINTS_START_XP = 1154;
+    static final int HITPOINTS_START_LEVEL = 10;
+
+    static final int MAX_XP = 200_000_000;
+    static final int MAX_BOOST = 99;
+
+    private static final Skill[] SKILLS = Skill.values();
+    private static final int OVERALL = Skill.OVERALL.ordinal();
+
+    // Level lookups for display XP and real XP, each caching the per-skill level bounds. The
+    // virtual tables extend to level 126 and are picked per pass when virtual levels are on.
+    private final LevelResolver displayLevels = new LevelResolver(Experience.MAX_REAL_LEVEL);
+    private final LevelResolver realLevels = new LevelResolver(Experience.MAX_REAL_LEVEL);
+    private final LevelResolver virtualDisplayLevels = new LevelResolver(Experience.MAX_VIRT_LEVEL);
+    private final LevelResolver virtualRealLevels = new LevelResolver(Experience.MAX_VIRT_LEVEL);
+
+    // Compute the display values of every skill. Returns a mask of the skills written; skills
+    // shown with real values are skipped until the client has reported them.
+    long computeAll(SkillStateTable state, CompiledSettings settings, int[] levels, int[] xp, int[] boosts)
+    {
+        long written = 0;
+        for (int i = 0; i < SKILLS.length; i++)
+        {
+            if (i != OVERALL && computeSkill(SKILLS[i], state, settings, levels, xp, boosts))
+            {
+                written |= 1L << i;
+            }
+        }
+        return written;
+    }
+
+    // Compute one skill's display values, returns false if nothing was written
+    boolean compute(Skill skill, SkillStateTable state, CompiledSettings settings, int[] levels, int[] xp, int[] boosts)
+    {
+        return skill != Skill.OVERALL && computeSkill(skill, state, settings, levels, xp, boosts);
+    }
+
+    // Compute every skill's real values, for taking the overrides off again. Returns a mask of
+    // the skills written.
+    long computeAllReal(SkillStateTable state, int[] levels, int[] xp, int[] boosts)
+    {
+        long written = 0;
+        for (int i = 0; i < SKILLS.length; i++)
+        {
+            if (i != OVERALL && computeReal(SKILLS[i], state, levels, xp, boosts))
+            {
+                written |= 1L << i;
+            }
+        }
+        return written;
+    }
+
+    // Highest level the skills tab can show
+    int getMaxDisplayLevel(boolean virtual)
+    {
+        return (virtual ? virtualDisplayLevels : displayLevels).getMaxLevel();
+    }
+
+    // Display XP left until a skill's next display level, 0 at the max display level
+    int getXpToNextDisplayLevel(Skill skill, int displayXp, boolean virtual)
+    {
+        return (virtual ? virtualDisplayLevels : displayLevels).getXpToNextLevel(skill, displayXp);
+    }
+
+    private boolean computeSkill(Skill skill, SkillStateTable state, CompiledSettings settings,
+                                 int[] levels, int[] xp, int[] boosts)
+    {
+        boolean virtual = settings.isVirtualLevels();
+        if (!settings.shouldReset(skill, state.getRealXp(skill)))
+        {
+            if (!computeReal(skill, state, levels, xp, boosts))
+            {
+                return false;
+            }
+
+            int i = skill.ordinal();
+            if (virtual && levels[i] == Experience.MAX_REAL_LEVEL)
+            {
+                // An unboosted 99 follows the virtual level along
+                int level = virtualRealLevels.getLevel(skill, xp[i]);
+                if (boosts[i] == levels[i])
+                {
+                    boosts[i] = level;
+                }
+                levels[i] = level;
+            }
+            return true;
+        }
+
+        int i = skill.ordinal();
+        long sessionXp = state.getSessionXp(skill);
+        boolean hitpoints = skill == Skill.HITPOINTS;
+
+        // For ALL_SKILLS mode, show level 1 with 0 XP when session XP is 0,
+        // except for Hitpoints which shows level 10 (1154 XP)
+        if (sessionXp == 0 && settings.getResetMode() == NumberGoUpConfig.ResetMode.ALL_SKILLS)
+        {
+            int level = hitpoints ? HITPOINTS_START_LEVEL : 1;
+            levels[i] = level;
+            xp[i] = hitpoints ? HITPOINTS_START_XP : 0;
+            boosts[i] = level;
+            return true;
+        }
+
+        // Integer math throughout, clamped into the range the client can show
+        long scaledXp = settings.applyMultiplier(skill, sessionXp);
+        if (hitpoints && scaledXp < Long.MAX_VALUE)
+        {
+            scaledXp += HITPOINTS_START_XP;
+        }
+        int displayXp = (int) Math.max(0, Math.min(scaledXp, MAX_XP));
+
+        int level = (virtual ? virtualDisplayLevels : displayLevels).getLevel(skill, displayXp);
+        levels[i] = level;
+        xp[i] = displayXp;
+        boosts[i] = level;
+        return true;
+    }
+
+    private boolean computeReal(Skill skill, SkillStateTable state, int[] levels, int[] xp, int[] boosts)
+    {
+        if (!state.hasReal(skill))
+        {
+            return false;
+        }
+
+        int i = skill.ordinal();
+        int realXp = state.getRealXp(skill);
+        levels[i] = realLevels.getLevel(skill, realXp);
+        xp[i] = realXp;
+        boosts[i] = Math.min(state.getRealBoost(skill), MAX_BOOST);
+        return true;
+    }
+}
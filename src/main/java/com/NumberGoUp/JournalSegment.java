@@ -0,0 +1,267 @@
+package com.NumberGoUp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+// One memory-mapped file of fixed-width XP journal records, in non-decreasing tick order.
+//
+// The header holds a magic number, version, flags and the record count. The count is written
+// after each record, so a segment cut off mid-append just ends at the last complete record.
+// The tick of every INDEX_STRIDE-th record is kept in a sparse index for range lookups.
+class JournalSegment
+{
+    static final int MAGIC = 0x4E47554A; // "NGUJ"
+    static final int VERSION = 1;
+
+    // Segment holds per-bucket aggregates rather than individual gains
+    static final int FLAG_COMPACTED = 1;
+
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 24;
+    static final int INDEX_STRIDE = 64;
+
+    // Record layout
+    private static final int TICK = 0;
+    private static final int TIME = 8;
+    private static final int DELTA = 16;
+    private static final int SKILL = 20;
+    private static final int LEVEL = 21;
+    private static final int SESSION = 22;
+
+    // Header layout
+    private static final int HEADER_FLAGS = 6;
+    private static final int HEADER_COUNT = 8;
+
+    interface Visitor
+    {
+        void visit(long tick, long timeMs, int session, int skill, int delta, int level);
+    }
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean compacted;
+
+    private int count;
+    private final long[] blockTicks;
+    private long firstTick = Long.MAX_VALUE;
+    private long lastTick = Long.MIN_VALUE;
+    private int firstSession = Integer.MAX_VALUE;
+    private int lastSession = Integer.MIN_VALUE;
+
+    private JournalSegment(File file, MappedByteBuffer buffer, int capacity, boolean compacted)
+    {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.compacted = compacted;
+        this.blockTicks = new long[capacity / INDEX_STRIDE + 1];
+    }
+
+    // Create an empty segment with room for the given number of records
+    static JournalSegment create(File file, int capacity, boolean compacted) throws IOException
+    {
+        MappedByteBuffer buffer = map(file, FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (long) capacity * RECORD_SIZE);
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, (short) VERSION);
+        buffer.putShort(HEADER_FLAGS, (short) (compacted ? FLAG_COMPACTED : 0));
+        buffer.putInt(HEADER_COUNT, 0);
+        return new JournalSegment(file, buffer, capacity, compacted);
+    }
+
+    // Map an existing segment, rebuilding its sparse index
+    static JournalSegment open(File file, boolean writable) throws IOException
+    {
+        long size = file.length();
+        if (size < HEADER_SIZE)
+        {
+            throw new IOException("Truncated journal segment " + file);
+        }
+
+        MappedByteBuffer buffer = map(file, writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION)
+        {
+            throw new IOException("Not a journal segment " + file);
+        }
+
+        int capacity = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+        boolean compacted = (buffer.getShort(HEADER_FLAGS) & FLAG_COMPACTED) != 0;
+        JournalSegment segment = new JournalSegment(file, buffer, capacity, compacted);
+
+        int count = Math.min(buffer.getInt(HEADER_COUNT), capacity);
+        for (int i = 0; i < count; i++)
+        {
+            segment.indexRecord(i);
+        }
+        segment.count = count;
+        return segment;
+    }
+
+    private static MappedByteBuffer map(File file, FileChannel.MapMode mode, long size) throws IOException
+    {
+        // The mapping stays valid after the file itself is closed
+        try (RandomAccessFile raf = new RandomAccessFile(file, mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw"))
+        {
+            return raf.getChannel().map(mode, 0, size);
+        }
+    }
+
+    File getFile()
+    {
+        return file;
+    }
+
+    int getCount()
+    {
+        return count;
+    }
+
+    int getCapacity()
+    {
+        return capacity;
+    }
+
+    boolean isFull()
+    {
+        return count >= capacity;
+    }
+
+    boolean isCompacted()
+    {
+        return compacted;
+    }
+
+    boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    long getFirstTick()
+    {
+        return firstTick;
+    }
+
+    long getLastTick()
+    {
+        return lastTick;
+    }
+
+    int getLastSession()
+    {
+        return lastSession;
+    }
+
+    // Append a record, returns false if the segment is full
+    boolean append(long tick, long timeMs, int session, int skill, int delta, int level)
+    {
+        if (count >= capacity)
+        {
+            return false;
+        }
+
+        int offset = HEADER_SIZE + count * RECORD_SIZE;
+        buffer.putLong(offset + TICK, tick);
+        buffer.putLong(offset + TIME, timeMs);
+        buffer.putInt(offset + DELTA, delta);
+        buffer.put(offset + SKILL, (byte) skill);
+        buffer.put(offset + LEVEL, (byte) level);
+        buffer.putShort(offset + SESSION, (short) session);
+
+        indexRecord(count);
+        count++;
+        buffer.putInt(HEADER_COUNT, count);
+        return true;
+    }
+
+    private void indexRecord(int i)
+    {
+        int offset = HEADER_SIZE + i * RECORD_SIZE;
+        long tick = buffer.getLong(offset + TICK);
+        int session = buffer.getShort(offset + SESSION) & 0xFFFF;
+
+        if (i % INDEX_STRIDE == 0)
+        {
+            blockTicks[i / INDEX_STRIDE] = tick;
+        }
+        firstTick = Math.min(firstTick, tick);
+        lastTick = Math.max(lastTick, tick);
+        firstSession = Math.min(firstSession, session);
+        lastSession = Math.max(lastSession, session);
+    }
+
+    // Sum of XP gained in a skill over ticks [fromTick, toTick)
+    long sumDelta(int skill, long fromTick, long toTick)
+    {
+        if (count == 0 || toTick <= firstTick || fromTick > lastTick)
+        {
+            return 0;
+        }
+
+        long sum = 0;
+        for (int i = scanStart(fromTick); i < count; i++)
+        {
+            int offset = HEADER_SIZE + i * RECORD_SIZE;
+            long tick = buffer.getLong(offset + TICK);
+            if (tick >= toTick)
+            {
+                break;
+            }
+            if (tick >= fromTick && buffer.get(offset + SKILL) == skill)
+            {
+                sum += buffer.getInt(offset + DELTA);
+            }
+        }
+        return sum;
+    }
+
+    // Start of the last index block whose first tick is before the given tick
+    private int scanStart(long tick)
+    {
+        int lo = 0;
+        int hi = (count - 1) / INDEX_STRIDE;
+        while (lo < hi)
+        {
+            int mid = (lo + hi + 1) >>> 1;
+            if (blockTicks[mid] < tick)
+            {
+                lo = mid;
+            }
+            else
+            {
+                hi = mid - 1;
+            }
+        }
+        return lo * INDEX_STRIDE;
+    }
+
+    boolean mayContainSession(int session)
+    {
+        return count > 0 && session >= firstSession && session <= lastSession;
+    }
+
+    void forEach(Visitor visitor)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            int offset = HEADER_SIZE + i * RECORD_SIZE;
+            visitor.visit(
+                    buffer.getLong(offset + TICK),
+                    buffer.getLong(offset + TIME),
+                    buffer.getShort(offset + SESSION) & 0xFFFF,
+                    buffer.get(offset + SKILL),
+                    buffer.getInt(offset + DELTA),
+                    buffer.get(offset + LEVEL) & 0xFF);
+        }
+    }
+
+    void force()
+    {
+        if (!buffer.isReadOnly())
+        {
+            buffer.force();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.NumberGoUp;
+
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+
+// Resolves XP to levels from a precomputed XP table, caching each skill's current level bounds.
+// A skill whose XP stays within its current level resolves with a single range check.
+class LevelResolver
+{
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    private final int maxLevel;
+
+    // xpForLevel[level] is the XP needed for that level, index 0 is unused
+    private final int[] xpForLevel;
+
+    // Cached level and its [lower, upper) XP bounds per skill
+    private final int[] cachedLevel = new int[SKILL_COUNT];
+    private final int[] cachedLower = new int[SKILL_COUNT];
+    private final int[] cachedUpper = new int[SKILL_COUNT];
+
+    LevelResolver(int maxLevel)
+    {
+        this.maxLevel = maxLevel;
+        this.xpForLevel = new int[maxLevel + 1];
+        for (int level = 1; level <= maxLevel; level++)
+        {
+            xpForLevel[level] = Experience.getXpForLevel(level);
+        }
+
+        // Start every skill with an empty range so the first lookup always searches
+        for (int i = 0; i < SKILL_COUNT; i++)
+        {
+            cachedLevel[i] = 1;
+            cachedLower[i] = 0;
+            cachedUpper[i] = 0;
+        }
+    }
+
+    int getMaxLevel()
+    {
+        return maxLevel;
+    }
+
+    // Level for the given XP, capped at the table's max level
+    int getLevel(Skill skill, int xp)
+    {
+        int i = skill.ordinal();
+        if (xp >= cachedLower[i] && xp < cachedUpper[i])
+        {
+            return cachedLevel[i];
+        }
+
+        int level = search(xp);
+        cachedLevel[i] = level;
+        cachedLower[i] = level == 1 ? Integer.MIN_VALUE : xpForLevel[level];
+        cachedUpper[i] = level == maxLevel ? Integer.MAX_VALUE : xpForLevel[level + 1];
+        return level;
+    }
+
+    // XP remaining until the next level, 0 once the max level is reached. Read off the cached upper
+    // bound, so it costs nothing more than getLevel.
+    int getXpToNextLevel(Skill skill, int xp)
+    {
+        getLevel(skill, xp);
+        int upper = cachedUpper[skill.ordinal()];
+        return upper == Integer.MAX_VALUE ? 0 : upper - xp;
+    }
+
+    // Highest level whose XP requirement is <= xp
+    private int search(int xp)
+    {
+        int low = 1;
+        int high = maxLevel;
+        while (low < high)
+        {
+            int mid = (low + high + 1) >>> 1;
+            if (xpForLevel[mid] <= xp)
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+}
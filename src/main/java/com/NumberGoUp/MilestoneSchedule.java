@@ -0,0 +1,176 @@
+package com.NumberGoUp;
+
+import java.util.Arrays;
+import net.runelite.api.Experience;
+
+// Increasing real XP points at which a skill resets in PER_SKILL_THRESHOLD mode.
+// Fixed intervals are resolved arithmetically, every other schedule is a sorted point table
+// resolved with a binary search.
+final class MilestoneSchedule
+{
+    static final int MAX_XP = 200_000_000;
+
+    // Most points a schedule may have, a spec asking for more is rejected like any invalid one
+    static final int MAX_POINTS = 1000;
+
+    // > 0 for a fixed interval schedule, otherwise points is used
+    private final int interval;
+    private final int[] points;
+
+    private MilestoneSchedule(int interval, int[] points)
+    {
+        this.interval = interval;
+        this.points = points;
+    }
+
+    // Every multiple of the given XP
+    static MilestoneSchedule interval(int xp)
+    {
+        return xp > 0 ? new MilestoneSchedule(xp, null) : null;
+    }
+
+    // The given XP points, in any order
+    static MilestoneSchedule points(int... xp)
+    {
+        if (xp.length > MAX_POINTS)
+        {
+            return null;
+        }
+        int[] sorted = Arrays.stream(xp).filter(p -> p > 0 && p <= MAX_XP).sorted().distinct().toArray();
+        return sorted.length > 0 ? new MilestoneSchedule(0, sorted) : null;
+    }
+
+    // The XP of each given real level
+    static MilestoneSchedule levels(int... levels)
+    {
+        int[] xp = Arrays.stream(levels)
+                .filter(level -> level > 1 && level <= Experience.MAX_VIRT_LEVEL)
+                .map(Experience::getXpForLevel)
+                .toArray();
+        return points(xp);
+    }
+
+    // start, start * ratio, start * ratio^2, ... up to the XP cap
+    static MilestoneSchedule geometric(int start, double ratio)
+    {
+        if (start <= 0 || start > MAX_XP || !(ratio > 1) || Double.isInfinite(ratio))
+        {
+            return null;
+        }
+
+        // Count the points first, so a ratio barely above 1 is rejected instead of generated
+        double count = Math.floor(Math.log((double) MAX_XP / start) / Math.log(ratio)) + 1;
+        if (count > MAX_POINTS)
+        {
+            return null;
+        }
+
+        // One spare slot in case the logarithms round down at an exact power
+        int[] xp = new int[(int) count + 1];
+        int n = 0;
+        for (double point = start; point <= MAX_XP && n < xp.length; point *= ratio)
+        {
+            xp[n++] = (int) point;
+        }
+        return points(Arrays.copyOf(xp, n));
+    }
+
+    // Build a schedule from its config form, null if the spec is empty or invalid:
+    // LEVELS "50,70,90", XP_POINTS "100000,500000", GEOMETRIC "10000*2"
+    static MilestoneSchedule parse(NumberGoUpConfig.ScheduleType type, String spec)
+    {
+        if (spec == null || spec.trim().isEmpty())
+        {
+            return null;
+        }
+
+        try
+        {
+            switch (type)
+            {
+                case LEVELS:
+                    return levels(parseList(spec));
+                case XP_POINTS:
+                    return points(parseList(spec));
+                case GEOMETRIC:
+                {
+                    String[] parts = spec.split("\\*");
+                    if (parts.length != 2)
+                    {
+                        return null;
+                    }
+                    return geometric(Integer.parseInt(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+                }
+                default:
+                    return null;
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    private static int[] parseList(String spec)
+    {
+        return Arrays.stream(spec.split(","))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    boolean isInterval()
+    {
+        return interval > 0;
+    }
+
+    int getInterval()
+    {
+        return interval;
+    }
+
+    // Highest milestone at or below the given XP, 0 if none has been reached
+    int floor(int xp)
+    {
+        if (interval > 0)
+        {
+            return xp < interval ? 0 : (xp / interval) * interval;
+        }
+        int index = indexAtOrBelow(xp);
+        return index < 0 ? 0 : points[index];
+    }
+
+    // Lowest milestone above the given XP, Integer.MAX_VALUE once past the last one
+    int next(int xp)
+    {
+        if (interval > 0)
+        {
+            long next = ((long) Math.max(xp, -1) / interval + 1) * interval;
+            return next > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) next;
+        }
+        int index = indexAtOrBelow(xp) + 1;
+        return index < points.length ? points[index] : Integer.MAX_VALUE;
+    }
+
+    // Number of milestones in (fromXp, toXp]
+    int crossings(int fromXp, int toXp)
+    {
+        if (toXp <= fromXp)
+        {
+            return 0;
+        }
+        if (interval > 0)
+        {
+            return Math.max(0, toXp / interval) - Math.max(0, fromXp / interval);
+        }
+        return indexAtOrBelow(toXp) - indexAtOrBelow(fromXp);
+    }
+
+    // Index of the highest point <= xp, -1 if there is none
+    private int indexAtOrBelow(int xp)
+    {
+        int index = Arrays.binarySearch(points, xp);
+        return index >= 0 ? index : -index - 2;
+    }
+}
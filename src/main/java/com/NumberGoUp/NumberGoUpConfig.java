@@ -33,6 +33,16 @@ public interface NumberGoUpConfig extends Config
         return ResetMode.NONE; // Changed default to NONE
     }
 
+    @ConfigItem(
+            keyName = "resetRule",
+            name = "Reset Rule",
+            description = "Skills the Rule reset mode resets, e.g. combat and realLevel >= 90 or skill in (SLAYER, HUNTER)"
+    )
+    default String resetRule()
+    {
+        return "";
+    }
+
     @ConfigItem(
             keyName = "keepProgressBetweenModes",
             name = "Keep Progress Between Modes",
@@ -43,6 +53,109 @@ public interface NumberGoUpConfig extends Config
         return false; // Default false (reset progress when switching modes)
     }
 
+    @ConfigItem(
+            keyName = "milestoneSchedule",
+            name = "Threshold Schedule",
+            description = "Where Per Skill Threshold mode resets: every multiple of each skill's own threshold, or the schedule points below for every skill"
+    )
+    default ScheduleType milestoneSchedule()
+    {
+        return ScheduleType.INTERVAL;
+    }
+
+    @ConfigItem(
+            keyName = "milestoneSpec",
+            name = "Threshold Schedule Points",
+            description = "Levels (50,70,90), XP points (100000,500000) or a geometric start and ratio (10000*2)"
+    )
+    default String milestoneSpec()
+    {
+        return "";
+    }
+
+    @ConfigItem(
+            keyName = "showXpRates",
+            name = "Show XP Rates",
+            description = "Show display XP per hour for the skills trained this session"
+    )
+    default boolean showXpRates()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "xpRateWindow",
+            name = "XP Rate Window",
+            description = "How far back the XP rate overlay averages over"
+    )
+    default RateWindow xpRateWindow()
+    {
+        return RateWindow.ONE_HOUR;
+    }
+
+    @ConfigItem(
+            keyName = "virtualLevels",
+            name = "Virtual Levels",
+            description = "Show levels past 99, up to 126, for skills with enough display XP"
+    )
+    default boolean virtualLevels()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "showVirtualTotals",
+            name = "Show Virtual Totals",
+            description = "Show the total level, total XP and combat level of the displayed stats"
+    )
+    default boolean showVirtualTotals()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "showPrestige",
+            name = "Show Prestige",
+            description = "Show how often each skill has been reset and the latest resets, also listed by ::prestige"
+    )
+    default boolean showPrestige()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "alwaysReapply",
+            name = "Always Reapply",
+            description = "Rewrite every overridden skill on every game tick instead of only when the client has overwritten it",
+            hidden = true
+    )
+    default boolean alwaysReapply()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "recordSession",
+            name = "Record Session",
+            description = "Record stat, tick and config events to a replay file in the RuneLite directory",
+            hidden = true
+    )
+    default boolean recordSession()
+    {
+        return false;
+    }
+
+    @ConfigItem(
+            keyName = "debugOverlay",
+            name = "Debug Overlay",
+            description = "Show the plugin's hot-path timings and counters in an overlay",
+            hidden = true
+    )
+    default boolean debugOverlay()
+    {
+        return false;
+    }
+
     // Per-skill custom XP thresholds for THRESHOLD mode
     @ConfigSection(name = "Custom XP Thresholds", description = "Set custom XP thresholds for reset (only works with 'Per Skill Threshold' mode)", position = 5, closedByDefault = true)
     String thresholdSection = "thresholdSection";
@@ -464,7 +577,8 @@ public interface NumberGoUpConfig extends Config
         COMBAT_ONLY("Combat Only"),
         NON_COMBAT_ONLY("Non-combat Only"),
         PER_SKILL_THRESHOLD("Per Skill Threshold"),
-        CUSTOM("Custom");
+        CUSTOM("Custom"),
+        RULE("Rule");
 
         private final String name;
 
@@ -479,4 +593,45 @@ public interface NumberGoUpConfig extends Config
             return name;
         }
     }
+
+    enum ScheduleType
+    {
+        INTERVAL("Per-skill interval"),
+        LEVELS("Levels"),
+        XP_POINTS("XP points"),
+        GEOMETRIC("Geometric");
+
+        private final String name;
+
+        ScheduleType(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+
+    enum RateWindow
+    {
+        FIVE_MINUTES("5 min"),
+        ONE_HOUR("1 hour"),
+        SESSION("Session");
+
+        private final String name;
+
+        RateWindow(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
 }
\ No newline at end of file
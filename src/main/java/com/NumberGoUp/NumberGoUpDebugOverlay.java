@@ -0,0 +1,42 @@
+package com.NumberGoUp;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import javax.inject.Inject;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+// Developer overlay showing what the plugin costs the client, enabled by the hidden debugOverlay setting
+class NumberGoUpDebugOverlay extends OverlayPanel
+{
+    private final PluginMetrics metrics;
+
+    @Inject
+    private NumberGoUpDebugOverlay(NumberGoUpPlugin plugin, PluginMetrics metrics)
+    {
+        super(plugin);
+        this.metrics = metrics;
+        setPosition(OverlayPosition.TOP_LEFT);
+        panelComponent.setPreferredSize(new Dimension(280, 0));
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        panelComponent.getChildren().add(TitleComponent.builder()
+                .text("Number Go Up! metrics")
+                .build());
+
+        for (String[] line : metrics.describe())
+        {
+            panelComponent.getChildren().add(LineComponent.builder()
+                    .left(line[0])
+                    .right(line[1])
+                    .build());
+        }
+
+        return super.render(graphics);
+    }
+}
@@ -1,21 +1,24 @@
 package com.NumberGoUp;
 
 import com.google.inject.Provides;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.*;
+import net.runelite.api.events.CommandExecuted;
+import net.runelite.api.events.GameStateChanged;
 import net.runelite.api.events.StatChanged;
 import net.runelite.api.events.GameTick;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
+import net.runelite.client.events.RuneScapeProfileChanged;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDescriptor;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.HashSet;
-import java.util.Set;
+import net.runelite.client.ui.overlay.OverlayManager;
 
 @Slf4j
 @PluginDescriptor(
@@ -25,6 +28,11 @@ import java.util.Set;
 )
 public class NumberGoUpPlugin extends Plugin
 {
+    private static final Skill[] SKILLS = Skill.values();
+
+    // Most recent resets listed by ::prestige
+    private static final int PRESTIGE_CHAT_RESETS = 5;
+
     @Inject
     private Client client;
 
@@ -37,268 +45,324 @@ public class NumberGoUpPlugin extends Plugin
     @Inject
     private ConfigManager configManager;
 
+    @Inject
+    private StatRenderer renderer;
+
+    @Inject
+    private StatePersister persister;
+
+    @Inject
+    private PluginMetrics metrics;
+
+    @Inject
+    private XpJournal journal;
+
+    @Inject
+    private XpRateTracker rates;
+
+    @Inject
+    private XpRateOverlay rateOverlay;
+
+    @Inject
+    private OverlayManager overlayManager;
+
+    @Inject
+    private NumberGoUpDebugOverlay debugOverlay;
+
+    @Inject
+    private DisplayTotals totals;
+
+    @Inject
+    private DisplayTotalsOverlay totalsOverlay;
+
+    @Inject
+    private PrestigeLedger prestige;
+
+    @Inject
+    private PrestigeOverlay prestigeOverlay;
+
+    @Inject
+    private SnapshotStore snapshots;
+
+    @Inject
+    private StateWal wal;
+
+    @Inject
+    private ScheduledExecutorService executor;
+
     private boolean enabled = false;
 
-    // Track XP gained since last reset for each skill
-    private Map<Skill, Integer> sessionXp = new HashMap<>();
+    // Whether the session state of the logged in profile has been loaded. Until then stat changes
+    // only update the real values, and nothing is rendered or staged.
+    private boolean stateReady;
+
+    // Profile being hydrated off thread, and a counter so superseded loads are dropped
+    private String loadingProfileKey;
+    private int loadGeneration;
+
+    // Compiled view of the config, rebuilt on config changes and swapped in as a whole
+    private volatile CompiledSettings settings;
 
-    // Track the last milestone XP for threshold mode
-    private Map<Skill, Integer> lastMilestoneXp = new HashMap<>();
+    // Session XP, milestones, reset start points and actual skill values for every skill
+    private final SkillStateTable state = new SkillStateTable();
 
-    // Track the last known XP for each skill to calculate gains
-    private Map<Skill, Integer> lastKnownXp = new HashMap<>();
+    // Display math, and the values it last computed for each skill
+    private final DisplayXpCalculator calculator = new DisplayXpCalculator();
+    private final int[] displayLevel = new int[SkillStateTable.SKILL_COUNT];
+    private final int[] displayXp = new int[SkillStateTable.SKILL_COUNT];
+    private final int[] displayBoost = new int[SkillStateTable.SKILL_COUNT];
 
-    // Track the XP at which we started resetting for each skill (for non-threshold modes)
-    private Map<Skill, Integer> resetStartXp = new HashMap<>();
+    // Real XP of each skill's next milestone in PER_SKILL_THRESHOLD mode, 0 when it must be resolved again
+    private final int[] nextMilestone = new int[SkillStateTable.SKILL_COUNT];
 
-    // Track actual skill values (like Prestige plugin)
-    private Map<Skill, Integer> actualSkillXp = new HashMap<>();
-    private Map<Skill, Integer> actualSkillBoost = new HashMap<>();
+    // Latest StatChanged values not yet applied, and whether a drain is already queued
+    private final int[] pendingXp = new int[SkillStateTable.SKILL_COUNT];
+    private final int[] pendingBoost = new int[SkillStateTable.SKILL_COUNT];
+    private long pendingSkills;
+    private boolean drainScheduled;
 
-    // Define combat skills
-    private static final Set<Skill> COMBAT_SKILLS = new HashSet<Skill>() {{
-        add(Skill.ATTACK);
-        add(Skill.STRENGTH);
-        add(Skill.DEFENCE);
-        add(Skill.HITPOINTS);
-        add(Skill.MAGIC);
-        add(Skill.RANGED);
-        add(Skill.PRAYER);
-    }};
+    // Developer recorder mode for replaying sessions headlessly
+    private final SessionRecorder recorder = new SessionRecorder();
 
     @Override
     protected void startUp() throws Exception
     {
         log.info("Number Go Up started! XP Modifier: {}, Reset Mode: {}", config.xpModifier(), config.resetMode());
-        enabled = true;
+        settings = CompiledSettings.compile(config);
 
-        // Initialize actual skill values
-        for (Skill skill : Skill.values()) {
-            if (skill != Skill.OVERALL) {
-                int currentXp = client.getSkillExperience(skill);
-                int currentBoost = client.getBoostedSkillLevel(skill);
-
-                actualSkillXp.put(skill, currentXp);
-                actualSkillBoost.put(skill, currentBoost);
-                lastKnownXp.put(skill, currentXp);
-            }
+        if (config.debugOverlay()) {
+            overlayManager.add(debugOverlay);
         }
-
-        // Load saved data
-        loadSessionXp();
-        loadLastMilestoneXp();
-        loadResetStartXp();
-
-        // Initialize tracking based on current reset mode
-        for (Skill skill : Skill.values()) {
-            if (skill != Skill.OVERALL) {
-                initializeSkillForCurrentMode(skill, actualSkillXp.get(skill));
-            }
+        if (config.showXpRates()) {
+            overlayManager.add(rateOverlay);
+        }
+        if (config.showVirtualTotals()) {
+            overlayManager.add(totalsOverlay);
+        }
+        if (config.showPrestige()) {
+            overlayManager.add(prestigeOverlay);
         }
 
-        // Force update all stats on startup
-        updateAllStats();
-
-        // Save initial state
-        saveSessionXp();
-        saveLastMilestoneXp();
-        saveResetStartXp();
+        // The session state is owned by the client thread, so a restart queued behind a shutdown
+        // applies in order. Saved state is hydrated off the client thread, the first render
+        // happens once it is loaded and the client is logged in.
+        clientThread.invoke(() -> {
+            enabled = true;
+            String profileKey = configManager.getRSProfileKey();
+            if (profileKey != null) {
+                loadProfile(profileKey);
+            }
+        });
     }
 
     private void initializeSkillForCurrentMode(Skill skill, int currentXp) {
-        switch (config.resetMode()) {
+        switch (settings.getResetMode()) {
             case NONE:
                 // NONE mode - don't reset any skills
-                sessionXp.put(skill, 0);
-                resetStartXp.remove(skill);
-                lastMilestoneXp.remove(skill);
+                state.setSessionXp(skill, 0);
+                state.clearResetStart(skill);
+                state.clearLastMilestone(skill);
                 break;
 
             case PER_SKILL_THRESHOLD:
-                int threshold = getThresholdForSkill(skill);
-                if (threshold > 0) {
-                    // If current XP is already above threshold, treat as if threshold was reached
-                    int lastMilestone = 0;
-                    if (currentXp >= threshold) {
-                        // Find the highest multiple of threshold <= current XP
-                        lastMilestone = (currentXp / threshold) * threshold;
-                    }
-                    lastMilestoneXp.put(skill, lastMilestone);
-                    sessionXp.put(skill, currentXp - lastMilestone);
-                    log.debug("Initialized threshold for {}: current={}, threshold={}, lastMilestone={}, session={}",
-                            skill.getName(), currentXp, threshold, lastMilestone, currentXp - lastMilestone);
-                } else {
-                    sessionXp.put(skill, 0);
-                    lastMilestoneXp.remove(skill);
-                }
+                initializeMilestone(skill, currentXp);
                 break;
 
             default:
                 // For other modes (ALL_SKILLS, NINETY_NINES_ONLY, COMBAT_ONLY, NON_COMBAT_ONLY, CUSTOM)
                 if (shouldResetSkill(skill)) {
                     // If we have a saved reset start XP, use it to calculate session XP
-                    if (resetStartXp.containsKey(skill)) {
-                        sessionXp.put(skill, currentXp - resetStartXp.get(skill));
+                    if (state.hasResetStart(skill)) {
+                        state.setSessionXp(skill, currentXp - state.getResetStart(skill));
                     } else {
                         // First time resetting - start from current XP
-                        resetStartXp.put(skill, currentXp);
-                        sessionXp.put(skill, 0);
+                        state.setResetStart(skill, currentXp);
+                        state.setSessionXp(skill, 0);
                     }
                 } else {
-                    sessionXp.put(skill, 0);
-                    resetStartXp.remove(skill);
+                    state.setSessionXp(skill, 0);
+                    state.clearResetStart(skill);
                 }
                 break;
         }
     }
 
+    // Start a skill's milestones from the highest one its current XP has already reached
+    private void initializeMilestone(Skill skill, int currentXp)
+    {
+        nextMilestone[skill.ordinal()] = 0;
+        MilestoneSchedule schedule = settings.getSchedule(skill);
+        if (schedule == null) {
+            state.setSessionXp(skill, 0);
+            state.clearLastMilestone(skill);
+            return;
+        }
+
+        int lastMilestone = schedule.floor(currentXp);
+        state.setLastMilestone(skill, lastMilestone);
+        state.setSessionXp(skill, currentXp - lastMilestone);
+        log.debug("Initialized milestones for {}: current={}, lastMilestone={}, session={}",
+                skill.getName(), currentXp, lastMilestone, currentXp - lastMilestone);
+    }
+
     @Override
     protected void shutDown() throws Exception
     {
         log.info("Number Go Up stopped!");
-        enabled = false;
-
-        // Save session XP and milestones before shutting down
-        saveSessionXp();
-        saveLastMilestoneXp();
-        saveResetStartXp();
-
-        // Restore original stats
-        restoreAllOriginalValues(true);
-
-        // Force a full client refresh to ensure visual update
-        clientThread.invokeLater(() -> {
-            if (client.getGameState() == GameState.LOGGED_IN) {
-                for (Skill skill : Skill.values()) {
-                    if (skill != Skill.OVERALL) {
-                        client.queueChangedSkill(skill);
-                    }
+        overlayManager.remove(debugOverlay);
+        overlayManager.remove(rateOverlay);
+        overlayManager.remove(totalsOverlay);
+        overlayManager.remove(prestigeOverlay);
+
+        // Shut down on the client thread, which owns the pending stats, the state and the client's skill arrays
+        clientThread.invoke(() -> {
+            // Save session XP and milestones before shutting down
+            drainStats();
+            saveState();
+            persister.flush();
+            wal.sync();
+            prestige.flush();
+            journal.close();
+            recorder.stop();
+
+            enabled = false;
+            stateReady = false;
+            loadingProfileKey = null;
+            loadGeneration++;
+
+            // Restore original stats
+            restoreAllOriginalValues(true);
+            renderer.invalidate();
+            totals.clear();
+
+            // Force a full client refresh to ensure visual update
+            clientThread.invokeLater(() -> {
+                if (client.getGameState() == GameState.LOGGED_IN) {
+                    renderer.queueAll();
                 }
-            }
+            });
         });
     }
 
     @Subscribe
     public void onConfigChanged(ConfigChanged event)
     {
-        if (!event.getGroup().equals("numbergoup")) {
+        if (!event.getGroup().equals("numbergoup") || StatePersister.isStateKey(event.getKey())
+                || event.getKey().equals(PrestigeLedger.PRESTIGE_KEY)) {
             return;
         }
 
-        // If reset mode changed, update all stats immediately
-        if (event.getKey().equals("resetMode")) {
-            log.info("Reset mode changed to: {}", config.resetMode());
-
-            // First restore all skills to their original values
-            restoreAllOriginalValues(false);
-
-            if (config.keepProgressBetweenModes()) {
-                // Keep progress between modes - preserve session XP for skills that are still being reset
-                log.info("Keeping progress between reset modes");
+        // Config changes arrive on the UI thread, the coalescing buffer and the state belong to the client thread
+        clientThread.invoke(() -> {
+            long start = System.nanoTime();
+            try {
+                handleConfigChanged(event);
+            } finally {
+                metrics.record(PluginMetrics.Handler.CONFIG_CHANGED, start);
+            }
+        });
+    }
 
-                // Create temporary maps to preserve progress for skills that will still be reset
-                Map<Skill, Integer> preservedSessionXp = new HashMap<>();
-                Map<Skill, Integer> preservedResetStartXp = new HashMap<>();
-                Map<Skill, Integer> preservedLastMilestoneXp = new HashMap<>();
+    private void handleConfigChanged(ConfigChanged event)
+    {
+        drainStats();
 
-                // Check each skill to see if it will still be reset in the new mode
-                for (Skill skill : Skill.values()) {
-                    if (skill != Skill.OVERALL) {
-                        int currentXp = actualSkillXp.get(skill);
-                        lastKnownXp.put(skill, currentXp);
-
-                        boolean willResetInNewMode = shouldResetSkill(skill);
-                        boolean wasResettingPreviously = sessionXp.containsKey(skill) && sessionXp.get(skill) > 0;
-
-                        if (willResetInNewMode) {
-                            // Skill will be reset in new mode - preserve its progress
-                            if (wasResettingPreviously) {
-                                // Keep existing progress
-                                preservedSessionXp.put(skill, sessionXp.get(skill));
-                                if (resetStartXp.containsKey(skill)) {
-                                    preservedResetStartXp.put(skill, resetStartXp.get(skill));
-                                }
-                                if (lastMilestoneXp.containsKey(skill)) {
-                                    preservedLastMilestoneXp.put(skill, lastMilestoneXp.get(skill));
-                                }
-                                log.debug("Preserved progress for {}: sessionXp={}", skill.getName(), sessionXp.get(skill));
-                            } else {
-                                // Skill wasn't being reset before but will be now - initialize fresh
-                                initializeSkillForCurrentMode(skill, currentXp);
-                            }
-                        } else {
-                            // Skill won't be reset in new mode - clear its progress
-                            sessionXp.put(skill, 0);
-                            resetStartXp.remove(skill);
-                            lastMilestoneXp.remove(skill);
-                        }
-                    }
-                }
+        // Rebuild the compiled settings once, everything below reads from the new snapshot
+        CompiledSettings previous = settings;
+        settings = CompiledSettings.compile(config, previous);
+        Arrays.fill(nextMilestone, 0);
 
-                // Update the main maps with preserved values
-                for (Skill skill : preservedSessionXp.keySet()) {
-                    sessionXp.put(skill, preservedSessionXp.get(skill));
-                }
-                for (Skill skill : preservedResetStartXp.keySet()) {
-                    resetStartXp.put(skill, preservedResetStartXp.get(skill));
-                }
-                for (Skill skill : preservedLastMilestoneXp.keySet()) {
-                    lastMilestoneXp.put(skill, preservedLastMilestoneXp.get(skill));
-                }
+        if (event.getKey().equals("debugOverlay")) {
+            if (config.debugOverlay() && enabled) {
+                overlayManager.add(debugOverlay);
+            } else {
+                overlayManager.remove(debugOverlay);
+            }
+            return;
+        }
 
+        if (event.getKey().equals("showXpRates")) {
+            if (config.showXpRates() && enabled) {
+                overlayManager.add(rateOverlay);
             } else {
-                // Don't keep progress - clear everything and start fresh
-                log.info("Resetting progress for new reset mode");
+                overlayManager.remove(rateOverlay);
+            }
+            return;
+        }
 
-                lastKnownXp.clear();
-                resetStartXp.clear();
-                lastMilestoneXp.clear();
-                sessionXp.clear();
+        if (event.getKey().equals("showVirtualTotals")) {
+            if (config.showVirtualTotals() && enabled) {
+                overlayManager.add(totalsOverlay);
+            } else {
+                overlayManager.remove(totalsOverlay);
+            }
+            return;
+        }
 
-                for (Skill skill : Skill.values()) {
-                    if (skill != Skill.OVERALL) {
-                        int currentXp = actualSkillXp.get(skill);
-                        lastKnownXp.put(skill, currentXp);
+        if (event.getKey().equals("showPrestige")) {
+            if (config.showPrestige() && enabled) {
+                overlayManager.add(prestigeOverlay);
+            } else {
+                overlayManager.remove(prestigeOverlay);
+            }
+            return;
+        }
 
-                        initializeSkillForCurrentMode(skill, currentXp);
-                    }
-                }
+        if (event.getKey().equals("recordSession")) {
+            if (config.recordSession() && enabled) {
+                saveState();
+                recorder.start(config, persister.snapshot(), state);
+            } else {
+                recorder.stop();
             }
+            return;
+        }
+        recorder.configChanged(event.getKey(), event.getNewValue());
 
-            saveSessionXp();
-            saveLastMilestoneXp();
-            saveResetStartXp();
+        // Still loading, the profile is initialized against the new settings once it arrives
+        if (!stateReady) {
+            return;
+        }
 
-            if (enabled) {
-                updateAllStats();
-            }
+        // If reset mode changed, only move the skills the switch actually affects
+        if (event.getKey().equals("resetMode")) {
+            log.info("Reset mode changed to: {}", settings.getResetMode());
+            reportRuleError();
+            switchResetMode(previous);
+        }
+
+        // A new rule moves skills in and out of the reset set just like a mode switch
+        if (event.getKey().equals("resetRule") && settings.getResetMode() == NumberGoUpConfig.ResetMode.RULE) {
+            log.info("Reset rule changed to: {}", config.resetRule());
+            reportRuleError();
+            switchResetMode(previous);
         }
 
         // If the keepProgressBetweenModes setting itself changed
         if (event.getKey().equals("keepProgressBetweenModes")) {
-            log.info("Keep progress between modes changed to: {}", config.keepProgressBetweenModes());
+            log.info("Keep progress between modes changed to: {}", settings.isKeepProgressBetweenModes());
         }
 
         // If a custom reset checkbox changed and we're in custom mode, update that specific skill
-        if (event.getKey().startsWith("reset") && config.resetMode() == NumberGoUpConfig.ResetMode.CUSTOM) {
+        if (isCustomResetToggle(event.getKey()) && settings.getResetMode() == NumberGoUpConfig.ResetMode.CUSTOM) {
             if (enabled) {
                 String skillName = event.getKey().substring(5);
                 try {
                     Skill skill = Skill.valueOf(skillName.toUpperCase());
-                    int currentXp = actualSkillXp.get(skill);
+                    int currentXp = state.getRealXp(skill);
 
                     if (shouldResetSkill(skill)) {
-                        // Skill is now being reset
-                        resetStartXp.put(skill, currentXp);
-                        sessionXp.put(skill, 0);
+                        // Skill is now being reset from scratch, which counts as a prestige
+                        prestige.record(skill, 1, currentXp, displayLevel[skill.ordinal()]);
+                        state.setResetStart(skill, currentXp);
+                        state.setSessionXp(skill, 0);
                     } else {
                         // Skill is no longer being reset
-                        resetStartXp.remove(skill);
-                        sessionXp.put(skill, 0);
+                        state.clearResetStart(skill);
+                        state.setSessionXp(skill, 0);
                     }
 
-                    saveResetStartXp();
-                    saveSessionXp();
+                    saveState();
                     updateStat(skill);
                 } catch (IllegalArgumentException e) {
                     log.warn("Unknown skill from config key: {}", event.getKey());
@@ -307,32 +371,13 @@ public class NumberGoUpPlugin extends Plugin
         }
 
         // If a threshold value changed and we're in threshold mode
-        if (event.getKey().endsWith("Threshold") && config.resetMode() == NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD) {
+        if (event.getKey().endsWith("Threshold") && settings.getResetMode() == NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD) {
             if (enabled) {
                 String skillName = event.getKey().replace("Threshold", "");
                 try {
                     Skill skill = Skill.valueOf(skillName.toUpperCase());
-                    int currentXp = actualSkillXp.get(skill);
-                    int threshold = getThresholdForSkill(skill);
-
-                    lastKnownXp.put(skill, currentXp);
-
-                    if (threshold > 0) {
-                        // If current XP is already above threshold, treat as if threshold was reached
-                        int lastMilestone = 0;
-                        if (currentXp >= threshold) {
-                            lastMilestone = (currentXp / threshold) * threshold;
-                        }
-                        lastMilestoneXp.put(skill, lastMilestone);
-                        sessionXp.put(skill, currentXp - lastMilestone);
-                        saveLastMilestoneXp();
-                        saveSessionXp();
-                    } else {
-                        lastMilestoneXp.remove(skill);
-                        sessionXp.put(skill, 0);
-                        saveLastMilestoneXp();
-                        saveSessionXp();
-                    }
+                    initializeMilestone(skill, state.getRealXp(skill));
+                    saveState();
 
                     updateStat(skill);
                 } catch (IllegalArgumentException e) {
@@ -341,523 +386,761 @@ public class NumberGoUpPlugin extends Plugin
             }
         }
 
-        // If XP modifier changed, update all stats
-        if (event.getKey().equals("xpModifier") || event.getKey().endsWith("Multiplier")) {
+        // A new schedule moves every skill's milestones
+        if (event.getKey().startsWith("milestone") && settings.getResetMode() == NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD) {
+            if (enabled) {
+                for (Skill skill : SKILLS) {
+                    if (skill != Skill.OVERALL) {
+                        initializeMilestone(skill, state.getRealXp(skill));
+                    }
+                }
+                saveState();
+                updateAllStats();
+            }
+        }
+
+        // If XP modifier or the level range changed, update all stats
+        if (event.getKey().equals("xpModifier") || event.getKey().endsWith("Multiplier") || event.getKey().equals("virtualLevels")) {
             if (enabled) {
                 updateAllStats();
             }
         }
     }
 
+    // Per-skill checkboxes of CUSTOM mode, e.g. resetAttack, but not resetMode or resetRule
+    private static boolean isCustomResetToggle(String key)
+    {
+        return key.startsWith("reset") && !key.equals("resetMode") && !key.equals("resetRule");
+    }
+
+    // Tell the user why their reset rule isn't being used
+    private void reportRuleError()
+    {
+        String error = settings.getRuleError();
+        if (error == null)
+        {
+            return;
+        }
+
+        log.warn("Invalid Number Go Up reset rule: {}", error);
+        if (client.getGameState() == GameState.LOGGED_IN)
+        {
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Number Go Up! Invalid reset rule: " + error, null);
+        }
+    }
+
+    // Move to a new reset mode as a diff against the previous settings. Only skills whose reset
+    // membership or baseline changes are touched, and the result is staged and rendered once,
+    // so skills the switch doesn't affect never flash back to their real values.
+    private void switchResetMode(CompiledSettings previous)
+    {
+        boolean keepProgress = settings.isKeepProgressBetweenModes();
+        boolean thresholdBefore = previous.getResetMode() == NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD;
+        boolean thresholdNow = settings.getResetMode() == NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD;
+        // Editing the rule of the current mode never restarts the skills it keeps resetting
+        boolean sameMode = previous.getResetMode() == settings.getResetMode();
+
+        long affected = 0;
+        for (Skill skill : SKILLS)
+        {
+            // Skills without real values yet are initialized when they arrive
+            if (skill == Skill.OVERALL || !state.hasReal(skill))
+            {
+                continue;
+            }
+
+            int currentXp = state.getRealXp(skill);
+            boolean wasReset = previous.shouldReset(skill, currentXp);
+            boolean nowReset = settings.shouldReset(skill, currentXp);
+
+            if (!nowReset)
+            {
+                if (!wasReset)
+                {
+                    continue;
+                }
+                // No longer reset, back to real values
+                state.setSessionXp(skill, 0);
+                state.clearResetStart(skill);
+                state.clearLastMilestone(skill);
+            }
+            else if (thresholdNow)
+            {
+                // Milestones come from the schedule, so there is no progress to carry over
+                // unless the skill was already counting towards them
+                if (wasReset && thresholdBefore && keepProgress)
+                {
+                    continue;
+                }
+                state.clearResetStart(skill);
+                initializeMilestone(skill, currentXp);
+            }
+            else if (wasReset && (keepProgress || sameMode))
+            {
+                if (!thresholdBefore)
+                {
+                    // Same reset start point in both modes
+                    continue;
+                }
+                // Carry the milestone progress over as a reset start point
+                state.setResetStart(skill, (int) (currentXp - state.getSessionXp(skill)));
+                state.clearLastMilestone(skill);
+            }
+            else
+            {
+                // Newly reset, or progress isn't kept, start fresh from the current XP
+                state.clearLastMilestone(skill);
+                state.setResetStart(skill, currentXp);
+                state.setSessionXp(skill, 0);
+            }
+            affected |= 1L << skill.ordinal();
+        }
+
+        log.debug("Reset mode switch affected {} skills", Long.bitCount(affected));
+        if (affected == 0)
+        {
+            return;
+        }
+
+        saveState();
+        if (enabled)
+        {
+            long computed = 0;
+            for (long skills = affected; skills != 0; skills &= skills - 1)
+            {
+                int i = Long.numberOfTrailingZeros(skills);
+                if (calculator.compute(SKILLS[i], state, settings, displayLevel, displayXp, displayBoost))
+                {
+                    computed |= 1L << i;
+                }
+            }
+            metrics.add(PluginMetrics.Counter.SKILLS_RECOMPUTED, Long.bitCount(affected));
+            render(computed);
+        }
+    }
+
     @Subscribe
     public void onStatChanged(StatChanged statChanged)
     {
+        long start = System.nanoTime();
         Skill skill = statChanged.getSkill();
+        recorder.statChanged(skill, statChanged.getXp(), statChanged.getBoostedLevel());
+
+        // A hit or a login fires several of these at once, so only buffer the raw values here
+        // and apply the whole batch once the client thread gets to it
+        int i = skill.ordinal();
+        pendingXp[i] = statChanged.getXp();
+        pendingBoost[i] = statChanged.getBoostedLevel();
+        pendingSkills |= 1L << i;
+        if (!drainScheduled)
+        {
+            drainScheduled = true;
+            clientThread.invokeLater(this::drainStats);
+        }
 
-        // Update actual skill values
-        actualSkillXp.put(skill, statChanged.getXp());
-        actualSkillBoost.put(skill, statChanged.getBoostedLevel());
+        metrics.record(PluginMetrics.Handler.STAT_CHANGED, start);
+    }
+
+    // Apply every buffered StatChanged, then render and stage state once for the whole batch
+    private void drainStats()
+    {
+        drainScheduled = false;
+        long pending = pendingSkills;
+        if (pending == 0)
+        {
+            return;
+        }
+        pendingSkills = 0;
+
+        long start = System.nanoTime();
+        long computed = 0;
+        while (pending != 0)
+        {
+            int i = Long.numberOfTrailingZeros(pending);
+            pending &= pending - 1;
+            if (applyStat(SKILLS[i], pendingXp[i], pendingBoost[i]))
+            {
+                computed |= 1L << i;
+            }
+        }
 
-        // Only update when plugin is enabled and not in NONE mode
-        if (enabled && skill != Skill.OVERALL && config.resetMode() != NumberGoUpConfig.ResetMode.NONE)
+        if (computed != 0)
         {
-            int newXp = statChanged.getXp();
-            int oldXp = lastKnownXp.getOrDefault(skill, newXp);
-            int xpGained = newXp - oldXp;
+            metrics.add(PluginMetrics.Counter.SKILLS_RECOMPUTED, Long.bitCount(computed));
+            render(computed);
+            saveState();
+        }
+        metrics.record(PluginMetrics.Handler.STAT_DRAIN, start);
+    }
+
+    // Apply one skill's latest real values, returns true if its display values were recomputed
+    private boolean applyStat(Skill skill, int newXp, int boostedLevel)
+    {
+        // The previous actual XP doubles as the last known XP for calculating gains
+        int oldXp = state.hasReal(skill) ? state.getRealXp(skill) : newXp;
+        int xpGained = newXp - oldXp;
+
+        // Update actual skill values
+        state.setReal(skill, newXp, boostedLevel);
 
-            // Update last known XP
-            lastKnownXp.put(skill, newXp);
+        boolean computed = false;
 
+        // NONE mode tracks no session, but the skill is still rendered so the real values it shows
+        // follow the game instead of what reapply() last pushed
+        if (stateReady && skill != Skill.OVERALL)
+        {
             // For threshold mode
-            if (config.resetMode() == NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD)
+            if (settings.getResetMode() == NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD)
             {
                 handleThresholdMode(skill, newXp);
             }
-            else
+            else if (settings.getResetMode() != NumberGoUpConfig.ResetMode.NONE)
             {
                 // For other modes
                 if (shouldResetSkill(skill))
                 {
                     // Check if we just started resetting this skill
-                    if (!resetStartXp.containsKey(skill)) {
-                        resetStartXp.put(skill, newXp - xpGained);
+                    if (!state.hasResetStart(skill)) {
+                        state.setResetStart(skill, newXp - xpGained);
                     }
 
                     // Calculate session XP from reset start point
-                    int resetStart = resetStartXp.get(skill);
-                    sessionXp.put(skill, newXp - resetStart);
+                    int resetStart = state.getResetStart(skill);
+                    state.setSessionXp(skill, newXp - resetStart);
                 }
                 else
                 {
                     // Skill shouldn't be reset
-                    resetStartXp.remove(skill);
-                    sessionXp.put(skill, 0);
+                    state.clearResetStart(skill);
+                    state.setSessionXp(skill, 0);
                 }
             }
 
-            updateStat(skill);
-            saveSessionXp();
-            saveResetStartXp();
+            computed = calculator.compute(skill, state, settings, displayLevel, displayXp, displayBoost);
         }
-    }
 
-    @Subscribe
-    public void onGameTick(GameTick event)
-    {
-        // Continuously update stats to maintain visual override
-        if (enabled && client.getGameState() == GameState.LOGGED_IN)
+        if (stateReady && xpGained > 0 && skill != Skill.OVERALL)
         {
-            updateAllStats();
+            // Rates follow the display XP, which reset skills gain at their multiplier
+            long displayGain = settings.shouldReset(skill, newXp)
+                    ? settings.applyMultiplier(skill, xpGained)
+                    : xpGained;
+            rates.record(skill, displayGain);
+
+            // Keep a long-term history of real gains, with the level they took the display to
+            int level = settings.getResetMode() == NumberGoUpConfig.ResetMode.NONE
+                    ? Experience.getLevelForXp(newXp)
+                    : displayLevel[skill.ordinal()];
+            journal.append(skill, xpGained, level);
         }
+        return computed;
     }
 
-    private void handleThresholdMode(Skill skill, int currentRealXp)
+    @Subscribe
+    public void onGameTick(GameTick event)
     {
-        int threshold = getThresholdForSkill(skill);
-
-        // If threshold is 0, don't reset this skill
-        if (threshold <= 0) {
-            return;
+        long start = System.nanoTime();
+        recorder.gameTick();
+        drainStats();
+        journal.tick();
+        rates.tick();
+
+        // The game can restore real values at any time. Display values only change on stat and
+        // config events, so a tick just puts back whatever the client has overwritten.
+        if (stateReady && client.getGameState() == GameState.LOGGED_IN)
+        {
+            if (settings.isAlwaysReapply())
+            {
+                updateAllStats();
+            }
+            else
+            {
+                int restored = renderer.reapply();
+                if (restored > 0)
+                {
+                    metrics.add(PluginMetrics.Counter.SKILLS_RESTORED, restored);
+                    metrics.add(PluginMetrics.Counter.SKILLS_QUEUED, restored);
+                }
+            }
         }
 
-        // Get last milestone
-        int lastMilestone = lastMilestoneXp.getOrDefault(skill, 0);
-
-        // Check if we've crossed a threshold
-        int currentMilestone = (currentRealXp / threshold) * threshold;
-
-        // If we haven't set a milestone yet and current XP >= threshold, set the initial milestone
-        if (lastMilestone == 0 && currentRealXp >= threshold) {
-            lastMilestone = currentMilestone;
-            lastMilestoneXp.put(skill, lastMilestone);
-            sessionXp.put(skill, currentRealXp - lastMilestone);
-            saveLastMilestoneXp();
-            saveSessionXp();
-            return;
+        // Write out coalesced session state once it has been dirty long enough
+        long now = System.currentTimeMillis();
+        if (persister.isFlushDue(now))
+        {
+            persister.flush();
         }
-
-        // Check if we've passed any milestones
-        if (currentMilestone > lastMilestone)
+        if (prestige.isFlushDue(now))
         {
-            int thresholdsPassed = (currentMilestone - lastMilestone) / threshold;
-
-            // Update last milestone
-            lastMilestone = currentMilestone;
-            lastMilestoneXp.put(skill, lastMilestone);
+            prestige.flush();
+        }
 
-            // Session XP is the difference from current milestone
-            int sessionXpValue = currentRealXp - lastMilestone;
-            sessionXp.put(skill, sessionXpValue);
+        // Whatever was staged this tick goes to the state log in one batch
+        wal.sync();
 
-            // Save the new state
-            saveLastMilestoneXp();
-            saveSessionXp();
+        metrics.record(PluginMetrics.Handler.GAME_TICK, start);
+        metrics.roll(now);
+    }
 
-            // Show notification
-            if (client.getGameState() == GameState.LOGGED_IN && enabled && thresholdsPassed > 0)
+    @Subscribe
+    public void onCommandExecuted(CommandExecuted commandExecuted)
+    {
+        // ::ngumetrics dumps the same numbers as the debug overlay to the log
+        if (commandExecuted.getCommand().equalsIgnoreCase("ngumetrics"))
+        {
+            for (String[] line : metrics.describe())
             {
-                String message = "Number Go Up! " + skill.getName() + " has been reset ";
-                if (thresholdsPassed > 1) {
-                    message += "(passed " + thresholdsPassed + " thresholds of " + threshold + " XP)";
-                } else {
-                    message += "(reached threshold: " + threshold + " XP)";
-                }
-                client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message, null);
+                log.info("{}: {}", line[0], line[1]);
             }
-
-            log.debug("Threshold reset for {}: passed {} thresholds, new milestone={}, session={}",
-                    skill.getName(), thresholdsPassed, lastMilestone, sessionXpValue);
         }
-        else
+        // ::ngurates prints every window's display XP rate for the skills trained this session
+        else if (commandExecuted.getCommand().equalsIgnoreCase("ngurates"))
         {
-            // Update session XP to current difference from last milestone
-            int sessionXpValue = currentRealXp - lastMilestone;
-            sessionXp.put(skill, sessionXpValue);
-            saveSessionXp();
+            printRates();
+        }
+        // ::prestige prints each skill's prestige count and the latest resets
+        else if (commandExecuted.getCommand().equalsIgnoreCase("prestige"))
+        {
+            printPrestige();
+        }
+        // ::nguexport [name] and ::nguimport [name] back up and restore the account's state as a
+        // single file, named after the account unless a name is given
+        else if (commandExecuted.getCommand().equalsIgnoreCase("nguexport"))
+        {
+            exportSnapshot(snapshotName(commandExecuted.getArguments()));
+        }
+        else if (commandExecuted.getCommand().equalsIgnoreCase("nguimport"))
+        {
+            importSnapshot(snapshotName(commandExecuted.getArguments()));
         }
     }
 
-    private void updateAllStats()
+    private void printRates()
     {
-        for (Skill skill : Skill.values())
+        long active = rates.getActiveSkills();
+        if (active == 0)
         {
-            if (skill != Skill.OVERALL)
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Number Go Up! No XP gained this session", null);
+            return;
+        }
+
+        for (Skill skill : SKILLS)
+        {
+            if ((active & (1L << skill.ordinal())) == 0)
             {
-                updateStat(skill);
+                continue;
             }
+
+            StringBuilder message = new StringBuilder(skill.getName()).append(':');
+            for (NumberGoUpConfig.RateWindow window : NumberGoUpConfig.RateWindow.values())
+            {
+                message.append(' ').append(window).append(' ').append(XpRateTracker.format(rates.getRate(skill, window)));
+                if (window != NumberGoUpConfig.RateWindow.SESSION)
+                {
+                    message.append(',');
+                }
+            }
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message.toString(), null);
         }
     }
 
-    private void updateStat(Skill skill)
+    private void printPrestige()
     {
-        if (!enabled || skill == Skill.OVERALL)
+        StringBuilder counts = new StringBuilder();
+        for (Skill skill : SKILLS)
+        {
+            int count = skill == Skill.OVERALL ? 0 : prestige.getCount(skill);
+            if (count > 0)
+            {
+                counts.append(counts.length() == 0 ? "" : ", ").append(skill.getName()).append(' ').append(count);
+            }
+        }
+        if (counts.length() == 0)
         {
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Number Go Up! No skill has prestiged yet", null);
             return;
         }
 
-        // Get multiplier for this specific skill
-        double xpModifier = getXpModifierForSkill(skill);
+        client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Number Go Up! Prestige: " + counts, null);
+        for (PrestigeLedger.Reset reset : prestige.getRecent(PRESTIGE_CHAT_RESETS))
+        {
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", String.format("%s reset at %,d XP after reaching level %d, %s",
+                    reset.skill.getName(), reset.realXp, reset.displayLevel, PrestigeOverlay.ago(reset.timeMs)), null);
+        }
+    }
 
-        // Check if this skill should be reset based on reset mode
-        boolean shouldReset = shouldResetSkill(skill);
+    private String snapshotName(String[] arguments)
+    {
+        return arguments != null && arguments.length > 0 ? arguments[0] : SnapshotStore.defaultName(client.getAccountHash());
+    }
 
-        if (shouldReset)
+    // Stage everything pending, then write the staged state and ledger to the snapshot on the executor
+    private void exportSnapshot(String name)
+    {
+        if (!stateReady || persister.getProfileKey() == null || name == null)
         {
-            // Reset skill behavior - use session XP with multiplier
-            int skillSessionXp = sessionXp.getOrDefault(skill, 0);
-            int displayXp = (int)(skillSessionXp * xpModifier);
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Number Go Up! Log in before exporting a snapshot", null);
+            return;
+        }
 
-            // SPECIAL CASE: Hitpoints starts at level 10 (1154 XP), not level 1 (0 XP)
-            if (skill == Skill.HITPOINTS)
+        drainStats();
+        saveState();
+        String encodedState = persister.snapshot();
+        String encodedPrestige = prestige.snapshot();
+        executor.execute(() ->
+        {
+            String message;
+            try
             {
-                // Hitpoints starts at 1154 XP (level 10)
-                displayXp = 1154 + displayXp;
+                message = "Number Go Up! Exported a snapshot to " + snapshots.write(name, encodedState, encodedPrestige);
             }
-
-            // For display purposes, cap at level 99
-            if (displayXp > 200000000) {
-                displayXp = 200000000;
+            catch (IOException e)
+            {
+                log.warn("Unable to export Number Go Up snapshot", e);
+                message = "Number Go Up! Unable to export a snapshot: " + e.getMessage();
             }
+            String result = message;
+            clientThread.invokeLater(() -> client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", result, null));
+        });
+    }
 
-            int displayLevel = Experience.getLevelForXp(displayXp);
+    // Read and decode the snapshot on the executor, then swap it in on the client thread
+    private void importSnapshot(String name)
+    {
+        String profileKey = persister.getProfileKey();
+        if (!stateReady || profileKey == null || name == null)
+        {
+            client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Number Go Up! Log in before importing a snapshot", null);
+            return;
+        }
 
-            // Cap at level 99 for display
-            if (displayLevel > 99) {
-                displayLevel = 99;
+        int generation = loadGeneration;
+        executor.execute(() ->
+        {
+            SnapshotStore.Snapshot snapshot;
+            try
+            {
+                snapshot = snapshots.read(name);
             }
-
-            // For ALL_SKILLS mode, we need to show level 1 with 0 XP when session XP is 0
-            // Except for Hitpoints which starts at level 10
-            if (config.resetMode() == NumberGoUpConfig.ResetMode.ALL_SKILLS)
+            catch (IOException e)
             {
-                if (skill != Skill.HITPOINTS && skillSessionXp == 0)
-                {
-                    displayLevel = 1;
-                    displayXp = 0;
-                }
-                // Hitpoints in ALL_SKILLS mode with no session XP should show level 10 (1154 XP)
-                else if (skill == Skill.HITPOINTS && skillSessionXp == 0)
-                {
-                    displayLevel = 10;
-                    displayXp = 1154;
-                }
+                log.warn("Unable to import Number Go Up snapshot", e);
+                clientThread.invokeLater(() -> client.addChatMessage(ChatMessageType.GAMEMESSAGE, "",
+                        "Number Go Up! Unable to import a snapshot: " + e.getMessage(), null));
+                return;
             }
+            clientThread.invokeLater(() -> applySnapshot(generation, profileKey, snapshot));
+        });
+    }
 
-            // Update client to show display level
-            client.getRealSkillLevels()[skill.ordinal()] = displayLevel;
-            client.getSkillExperiences()[skill.ordinal()] = displayXp;
-            client.getBoostedSkillLevels()[skill.ordinal()] = displayLevel;
+    private void applySnapshot(int generation, String profileKey, SnapshotStore.Snapshot snapshot)
+    {
+        // Stopped, logged out or switched profile while the file was being read
+        if (!enabled || !stateReady || generation != loadGeneration || !profileKey.equals(persister.getProfileKey()))
+        {
+            return;
+        }
+
+        // Both parts were decoded when the file was read, so neither swap can fail halfway
+        drainStats();
+        persister.replace(snapshot.state, snapshot.statePresent);
+        prestige.replace(snapshot.prestigeCounts, snapshot.prestigeHistory);
 
-            client.queueChangedSkill(skill);
+        persister.restore(state);
+        Arrays.fill(nextMilestone, 0);
+        for (Skill skill : SKILLS)
+        {
+            if (skill != Skill.OVERALL && state.hasReal(skill))
+            {
+                initializeSkillForCurrentMode(skill, state.getRealXp(skill));
+            }
         }
-        else
+
+        // The imported state is written out in one flush rather than waiting for the debounce
+        saveState();
+        persister.flush();
+        prestige.flush();
+        if (client.getGameState() == GameState.LOGGED_IN)
         {
-            // Non-reset skill behavior - restore to original values
-            restoreSkillToOriginalValues(skill);
+            updateAllStats();
         }
+        client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", "Number Go Up! Imported the snapshot", null);
     }
 
-    // Restore a skill to its original values
-    private void restoreSkillToOriginalValues(Skill skill) {
-        if (skill == Skill.OVERALL) return;
-
-        int realXp = actualSkillXp.getOrDefault(skill, client.getSkillExperience(skill));
-        int realLevel = Experience.getLevelForXp(realXp);
-        int boostedLevel = actualSkillBoost.getOrDefault(skill, client.getBoostedSkillLevel(skill));
-
-        // Cap at level 99 for display
-        if (realLevel > 99) {
-            realLevel = 99;
+    @Subscribe
+    public void onGameStateChanged(GameStateChanged event)
+    {
+        if (event.getGameState() == GameState.LOGIN_SCREEN)
+        {
+            // Don't leave pending session state in memory across a logout, and don't let the next
+            // account's stats be staged into this account's profile or counted as gains
+            drainStats();
+            stateReady = false;
+            loadingProfileKey = null;
+            loadGeneration++;
+            persister.unload();
+            prestige.setProfile(null);
+            journal.close();
+            state.clearReal();
+            totals.clear();
         }
-        if (boostedLevel > 99) {
-            boostedLevel = 99;
+        else if (event.getGameState() == GameState.LOGGED_IN)
+        {
+            syncProfile();
         }
-
-        client.getRealSkillLevels()[skill.ordinal()] = realLevel;
-        client.getSkillExperiences()[skill.ordinal()] = realXp;
-        client.getBoostedSkillLevels()[skill.ordinal()] = boostedLevel;
-
-        client.queueChangedSkill(skill);
     }
 
-    // Restore all skills to original values
-    private void restoreAllOriginalValues(boolean isShutdown) {
-        for (Skill skill : Skill.values()) {
-            if (skill != Skill.OVERALL) {
-                restoreSkillToOriginalValues(skill);
-            }
-        }
+    @Subscribe
+    public void onRuneScapeProfileChanged(RuneScapeProfileChanged event)
+    {
+        syncProfile();
     }
 
-    // Determine if a skill should be reset based on reset mode
-    private boolean shouldResetSkill(Skill skill)
+    // Switch the session state over to the RS profile the client is now logged into
+    private void syncProfile()
     {
-        switch (config.resetMode())
+        String profileKey = configManager.getRSProfileKey();
+        if (!enabled || profileKey == null)
         {
-            case NONE:
-                return false;
-            case ALL_SKILLS:
-                return true; // ALL_SKILLS mode resets all skills
-            case NINETY_NINES_ONLY:
-                int currentXp = actualSkillXp.getOrDefault(skill, client.getSkillExperience(skill));
-                return currentXp >= 13034431; // XP for level 99
-            case COMBAT_ONLY:
-                return COMBAT_SKILLS.contains(skill);
-            case NON_COMBAT_ONLY:
-                return !COMBAT_SKILLS.contains(skill) && skill != Skill.OVERALL;
-            case CUSTOM:
-                return shouldResetCustomSkill(skill);
-            case PER_SKILL_THRESHOLD:
-                int threshold = getThresholdForSkill(skill);
-                return threshold > 0; // Only reset if threshold is set (> 0)
-            default:
-                return false;
+            return;
         }
+        if (loadingProfileKey != null ? profileKey.equals(loadingProfileKey) : stateReady && profileKey.equals(persister.getProfileKey()))
+        {
+            return;
+        }
+
+        log.debug("Switching Number Go Up state to profile {}", profileKey);
+        drainStats();
+        loadProfile(profileKey);
     }
 
-    // Check if a skill should be reset in Custom mode
-    private boolean shouldResetCustomSkill(Skill skill)
+    // Hydrate a profile's saved state and map its XP journal on the executor, then hand both to
+    // the client thread to be switched to in one step
+    private void loadProfile(String profileKey)
     {
-        switch (skill)
-        {
-            case ATTACK: return config.resetAttack();
-            case STRENGTH: return config.resetStrength();
-            case DEFENCE: return config.resetDefence();
-            case RANGED: return config.resetRanged();
-            case PRAYER: return config.resetPrayer();
-            case MAGIC: return config.resetMagic();
-            case RUNECRAFT: return config.resetRunecraft();
-            case CONSTRUCTION: return config.resetConstruction();
-            case HITPOINTS: return config.resetHitpoints();
-            case AGILITY: return config.resetAgility();
-            case HERBLORE: return config.resetHerblore();
-            case THIEVING: return config.resetThieving();
-            case CRAFTING: return config.resetCrafting();
-            case FLETCHING: return config.resetFletching();
-            case SLAYER: return config.resetSlayer();
-            case HUNTER: return config.resetHunter();
-            case MINING: return config.resetMining();
-            case SMITHING: return config.resetSmithing();
-            case FISHING: return config.resetFishing();
-            case COOKING: return config.resetCooking();
-            case FIREMAKING: return config.resetFiremaking();
-            case WOODCUTTING: return config.resetWoodcutting();
-            case FARMING: return config.resetFarming();
-            case SAILING: return config.resetSailing();
-            default: return false;
-        }
-    }
-
-    // Get threshold for a specific skill
-    private int getThresholdForSkill(Skill skill)
-    {
-        switch (skill)
-        {
-            case ATTACK: return config.attackThreshold();
-            case STRENGTH: return config.strengthThreshold();
-            case DEFENCE: return config.defenceThreshold();
-            case RANGED: return config.rangedThreshold();
-            case PRAYER: return config.prayerThreshold();
-            case MAGIC: return config.magicThreshold();
-            case RUNECRAFT: return config.runecraftThreshold();
-            case CONSTRUCTION: return config.constructionThreshold();
-            case HITPOINTS: return config.hitpointsThreshold();
-            case AGILITY: return config.agilityThreshold();
-            case HERBLORE: return config.herbloreThreshold();
-            case THIEVING: return config.thievingThreshold();
-            case CRAFTING: return config.craftingThreshold();
-            case FLETCHING: return config.fletchingThreshold();
-            case SLAYER: return config.slayerThreshold();
-            case HUNTER: return config.hunterThreshold();
-            case MINING: return config.miningThreshold();
-            case SMITHING: return config.smithingThreshold();
-            case FISHING: return config.fishingThreshold();
-            case COOKING: return config.cookingThreshold();
-            case FIREMAKING: return config.firemakingThreshold();
-            case WOODCUTTING: return config.woodcuttingThreshold();
-            case FARMING: return config.farmingThreshold();
-            case SAILING: return config.sailingThreshold();
-            default: return 0;
-        }
-    }
-
-    // Get XP modifier for specific skill
-    private double getXpModifierForSkill(Skill skill)
-    {
-        switch (skill)
-        {
-            case ATTACK:
-                return config.overrideAttack() ? config.attackMultiplier() : config.xpModifier();
-            case STRENGTH:
-                return config.overrideStrength() ? config.strengthMultiplier() : config.xpModifier();
-            case DEFENCE:
-                return config.overrideDefence() ? config.defenceMultiplier() : config.xpModifier();
-            case RANGED:
-                return config.overrideRanged() ? config.rangedMultiplier() : config.xpModifier();
-            case PRAYER:
-                return config.overridePrayer() ? config.prayerMultiplier() : config.xpModifier();
-            case MAGIC:
-                return config.overrideMagic() ? config.magicMultiplier() : config.xpModifier();
-            case RUNECRAFT:
-                return config.overrideRunecraft() ? config.runecraftMultiplier() : config.xpModifier();
-            case CONSTRUCTION:
-                return config.overrideConstruction() ? config.constructionMultiplier() : config.xpModifier();
-            case HITPOINTS:
-                return config.overrideHitpoints() ? config.hitpointsMultiplier() : config.xpModifier();
-            case AGILITY:
-                return config.overrideAgility() ? config.agilityMultiplier() : config.xpModifier();
-            case HERBLORE:
-                return config.overrideHerblore() ? config.herbloreMultiplier() : config.xpModifier();
-            case THIEVING:
-                return config.overrideThieving() ? config.thievingMultiplier() : config.xpModifier();
-            case CRAFTING:
-                return config.overrideCrafting() ? config.craftingMultiplier() : config.xpModifier();
-            case FLETCHING:
-                return config.overrideFletching() ? config.fletchingMultiplier() : config.xpModifier();
-            case SLAYER:
-                return config.overrideSlayer() ? config.slayerMultiplier() : config.xpModifier();
-            case HUNTER:
-                return config.overrideHunter() ? config.hunterMultiplier() : config.xpModifier();
-            case MINING:
-                return config.overrideMining() ? config.miningMultiplier() : config.xpModifier();
-            case SMITHING:
-                return config.overrideSmithing() ? config.smithingMultiplier() : config.xpModifier();
-            case FISHING:
-                return config.overrideFishing() ? config.fishingMultiplier() : config.xpModifier();
-            case COOKING:
-                return config.overrideCooking() ? config.cookingMultiplier() : config.xpModifier();
-            case FIREMAKING:
-                return config.overrideFiremaking() ? config.firemakingMultiplier() : config.xpModifier();
-            case WOODCUTTING:
-                return config.overrideWoodcutting() ? config.woodcuttingMultiplier() : config.xpModifier();
-            case FARMING:
-                return config.overrideFarming() ? config.farmingMultiplier() : config.xpModifier();
-            case SAILING:
-                return config.overrideSailing() ? config.sailingMultiplier() : config.xpModifier();
-            default:
-                return config.xpModifier();
-        }
+        stateReady = false;
+        loadingProfileKey = profileKey;
+        int generation = ++loadGeneration;
+        executor.execute(() ->
+        {
+            persister.prepare(profileKey);
+            XpJournal.Loaded loadedJournal = journal.load(profileKey);
+            clientThread.invokeLater(() -> activateProfile(generation, profileKey, loadedJournal));
+        });
     }
 
-    // Save session XP to config
-    private void saveSessionXp()
+    private void activateProfile(int generation, String profileKey, XpJournal.Loaded loadedJournal)
     {
-        if (!enabled) return;
+        // Stopped, logged out or superseded by another load in the meantime
+        if (!enabled || generation != loadGeneration)
+        {
+            return;
+        }
+
+        // Stat changes that came in while loading only updated the real values
+        drainStats();
+        loadingProfileKey = null;
 
-        for (Skill skill : Skill.values())
+        persister.load(profileKey);
+        persister.restore(state);
+        Arrays.fill(nextMilestone, 0);
+        prestige.setProfile(profileKey);
+
+        // An invalid rule with no earlier one to keep goes on resetting the skills that were
+        // reset when the state was saved
+        if (!settings.hasResetRule())
         {
-            if (skill != Skill.OVERALL)
+            long resetSkills = 0;
+            for (Skill skill : SKILLS)
             {
-                String key = "sessionXp_" + skill.name().toLowerCase();
-                configManager.setConfiguration("numbergoup", key, sessionXp.getOrDefault(skill, 0));
+                if (skill != Skill.OVERALL && state.hasResetStart(skill))
+                {
+                    resetSkills |= 1L << skill.ordinal();
+                }
             }
+            settings = settings.withResetRule(ResetRule.ofMask(resetSkills));
         }
-    }
+        journal.open(loadedJournal);
+        rates.reset();
 
-    // Load session XP from config
-    private void loadSessionXp()
-    {
-        for (Skill skill : Skill.values())
+        if (client.getGameState() == GameState.LOGGED_IN)
         {
-            if (skill != Skill.OVERALL)
+            for (Skill skill : SKILLS)
             {
-                String key = "sessionXp_" + skill.name().toLowerCase();
-                Integer savedXp = configManager.getConfiguration("numbergoup", key, Integer.class);
-                if (savedXp != null)
+                if (skill != Skill.OVERALL && !state.hasReal(skill))
                 {
-                    sessionXp.put(skill, savedXp);
-                }
-                else
-                {
-                    sessionXp.put(skill, 0);
+                    state.setReal(skill, client.getSkillExperience(skill), client.getBoostedSkillLevel(skill));
                 }
             }
         }
-    }
-
-    // Save last milestone XP to config
-    private void saveLastMilestoneXp()
-    {
-        if (!enabled) return;
 
-        for (Skill skill : Skill.values())
+        // Skills the client hasn't reported yet are initialized by their first StatChanged
+        for (Skill skill : SKILLS)
         {
-            if (skill != Skill.OVERALL)
+            if (skill != Skill.OVERALL && state.hasReal(skill))
             {
-                String key = "lastMilestone_" + skill.name().toLowerCase();
-                Integer milestone = lastMilestoneXp.get(skill);
-                if (milestone != null)
-                {
-                    configManager.setConfiguration("numbergoup", key, milestone);
-                }
-                else
-                {
-                    configManager.unsetConfiguration("numbergoup", key);
-                }
+                initializeSkillForCurrentMode(skill, state.getRealXp(skill));
             }
         }
+        stateReady = true;
+
+        if (config.recordSession() && !recorder.isRecording())
+        {
+            recorder.start(config, persister.snapshot(), state);
+        }
+
+        // Staging only marks what initialization changed, the loaded state itself isn't written back
+        saveState();
+        if (client.getGameState() == GameState.LOGGED_IN)
+        {
+            updateAllStats();
+        }
     }
 
-    // Load last milestone XP from config
-    private void loadLastMilestoneXp()
+    // Track milestones for a skill, the caller stages the resulting state
+    private void handleThresholdMode(Skill skill, int currentRealXp)
     {
-        for (Skill skill : Skill.values())
+        MilestoneSchedule schedule = settings.getSchedule(skill);
+
+        // No schedule, don't reset this skill
+        if (schedule == null) {
+            return;
+        }
+
+        int i = skill.ordinal();
+        int lastMilestone = state.getLastMilestone(skill);
+
+        // Below the next crossing point only the session XP moves
+        if (currentRealXp < nextMilestone[i])
+        {
+            state.setSessionXp(skill, currentRealXp - lastMilestone);
+            return;
+        }
+
+        // Resolve however many milestones this drop crossed, and where the next one is
+        int currentMilestone = schedule.floor(currentRealXp);
+        nextMilestone[i] = schedule.next(currentRealXp);
+
+        // If we haven't set a milestone yet and current XP has reached one, set the initial milestone
+        if (lastMilestone == 0 && currentMilestone > 0) {
+            state.setLastMilestone(skill, currentMilestone);
+            state.setSessionXp(skill, currentRealXp - currentMilestone);
+            return;
+        }
+
+        // Check if we've passed any milestones
+        if (currentMilestone > lastMilestone)
         {
-            if (skill != Skill.OVERALL)
+            int thresholdsPassed = schedule.crossings(lastMilestone, currentMilestone);
+
+            // Update last milestone
+            lastMilestone = currentMilestone;
+            state.setLastMilestone(skill, lastMilestone);
+
+            // Session XP is the difference from current milestone
+            int sessionXpValue = currentRealXp - lastMilestone;
+            state.setSessionXp(skill, sessionXpValue);
+
+            // Display values aren't recomputed yet, so this is still the level the skill reached
+            prestige.record(skill, thresholdsPassed, currentRealXp, displayLevel[i]);
+
+            // Show notification
+
+            if (client.getGameState() == GameState.LOGGED_IN && enabled && thresholdsPassed > 0)
             {
-                String key = "lastMilestone_" + skill.name().toLowerCase();
-                Integer savedMilestone = configManager.getConfiguration("numbergoup", key, Integer.class);
-                if (savedMilestone != null)
-                {
-                    lastMilestoneXp.put(skill, savedMilestone);
+                String message = "Number Go Up! " + skill.getName() + " has been reset ";
+                if (schedule.isInterval()) {
+                    int threshold = schedule.getInterval();
+                    if (thresholdsPassed > 1) {
+                        message += "(passed " + thresholdsPassed + " thresholds of " + threshold + " XP)";
+                    } else {
+                        message += "(reached threshold: " + threshold + " XP)";
+                    }
+                } else if (thresholdsPassed > 1) {
+                    message += "(passed " + thresholdsPassed + " milestones, latest at " + lastMilestone + " XP)";
+                } else {
+                    message += "(reached milestone: " + lastMilestone + " XP)";
                 }
+                client.addChatMessage(ChatMessageType.GAMEMESSAGE, "", message, null);
             }
+
+            log.debug("Threshold reset for {}: passed {} thresholds, new milestone={}, session={}",
+                    skill.getName(), thresholdsPassed, lastMilestone, sessionXpValue);
+        }
+        else
+        {
+            // Update session XP to current difference from last milestone
+            int sessionXpValue = currentRealXp - lastMilestone;
+            state.setSessionXp(skill, sessionXpValue);
         }
     }
 
-    // Save reset start XP to config
-    private void saveResetStartXp()
+    private void updateAllStats()
     {
-        if (!enabled) return;
+        long written = calculator.computeAll(state, settings, displayLevel, displayXp, displayBoost);
+        metrics.add(PluginMetrics.Counter.SKILLS_RECOMPUTED, SkillStateTable.SKILL_COUNT - 1);
+        render(written);
+    }
 
-        for (Skill skill : Skill.values())
+    private void updateStat(Skill skill)
+    {
+        if (!enabled || skill == Skill.OVERALL)
         {
-            if (skill != Skill.OVERALL)
-            {
-                String key = "resetStartXp_" + skill.name().toLowerCase();
-                Integer resetStart = resetStartXp.get(skill);
-                if (resetStart != null)
-                {
-                    configManager.setConfiguration("numbergoup", key, resetStart);
-                }
-                else
-                {
-                    configManager.unsetConfiguration("numbergoup", key);
-                }
-            }
+            return;
         }
+
+        metrics.increment(PluginMetrics.Counter.SKILLS_RECOMPUTED);
+        if (calculator.compute(skill, state, settings, displayLevel, displayXp, displayBoost))
+        {
+            render(1L << skill.ordinal());
+        }
+    }
+
+    // Restore all skills to original values
+    private void restoreAllOriginalValues(boolean isShutdown) {
+        render(calculator.computeAllReal(state, displayLevel, displayXp, displayBoost));
     }
 
-    // Load reset start XP from config
-    private void loadResetStartXp()
+    // Write the computed display values of the given skills to the client
+    private void render(long skills)
     {
-        for (Skill skill : Skill.values())
+        // Fetch the client arrays once and only write/queue the skills that differ
+        renderer.beginPass();
+        try
         {
-            if (skill != Skill.OVERALL)
+            while (skills != 0)
             {
-                String key = "resetStartXp_" + skill.name().toLowerCase();
-                Integer savedResetStart = configManager.getConfiguration("numbergoup", key, Integer.class);
-                if (savedResetStart != null)
-                {
-                    resetStartXp.put(skill, savedResetStart);
-                }
+                int i = Long.numberOfTrailingZeros(skills);
+                skills &= skills - 1;
+                renderer.render(SKILLS[i], displayLevel[i], displayXp[i], displayBoost[i]);
+
+                // The totals shown by the overlay follow what was just rendered, by delta
+                totals.set(SKILLS[i], displayLevel[i], displayXp[i]);
             }
         }
+        finally
+        {
+            metrics.add(PluginMetrics.Counter.SKILLS_QUEUED, renderer.endPass());
+        }
+    }
+
+    // Determine if a skill should be reset based on reset mode
+    private boolean shouldResetSkill(Skill skill)
+    {
+        return settings.shouldReset(skill, state.getRealXp(skill));
+    }
+
+    // Stage the session state for the next persistence flush
+    private void saveState()
+    {
+        if (!enabled || !stateReady) return;
+
+        persister.stage(state);
     }
 
     @Provides
-    NumberGoUpConfig provideConfig(ConfigManager configManager)
+    NumberGoUpConfig provideConfig(ConfigManager configManager, PluginMetrics metrics)
     {
-        return configManager.getConfig(NumberGoUpConfig.class);
+        return ConfigReadCounter.wrap(configManager.getConfig(NumberGoUpConfig.class), metrics);
     }
 }
\ No newline at end of file
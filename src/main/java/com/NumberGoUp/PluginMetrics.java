@@ -0,0 +1,206 @@
+package com.NumberGoUp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.inject.Singleton;
+
+// Always-on, low overhead counters and timing histograms for the plugin's hot paths.
+// Everything is striped (LongAdder) so recording from the client thread never contends
+// with the overlay or a log dump reading it.
+@Singleton
+class PluginMetrics
+{
+    static final long WINDOW_MS = 60_000;
+
+    enum Counter
+    {
+        SKILLS_RECOMPUTED("Skills recomputed"),
+        SKILLS_QUEUED("queueChangedSkill"),
+        SKILLS_RESTORED("Skills restored"),
+        CONFIG_READS("Config reads"),
+        CONFIG_WRITES("Config writes");
+
+        private final String label;
+
+        Counter(String label)
+        {
+            this.label = label;
+        }
+    }
+
+    enum Handler
+    {
+        GAME_TICK("onGameTick"),
+        STAT_CHANGED("onStatChanged"),
+        STAT_DRAIN("Stat drain"),
+        CONFIG_CHANGED("onConfigChanged");
+
+        private final String label;
+
+        Handler(String label)
+        {
+            this.label = label;
+        }
+    }
+
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final Timer[] timers = new Timer[Handler.values().length];
+
+    // Counter and handler totals at the start of the current and previous one minute windows
+    private final long[] windowStart = new long[Counter.values().length + Handler.values().length];
+    private final long[] lastWindow = new long[windowStart.length];
+    private long windowStartMs;
+
+    PluginMetrics()
+    {
+        for (int i = 0; i < counters.length; i++)
+        {
+            counters[i] = new LongAdder();
+        }
+        for (int i = 0; i < timers.length; i++)
+        {
+            timers[i] = new Timer();
+        }
+    }
+
+    void increment(Counter counter)
+    {
+        counters[counter.ordinal()].increment();
+    }
+
+    void add(Counter counter, long amount)
+    {
+        counters[counter.ordinal()].add(amount);
+    }
+
+    long get(Counter counter)
+    {
+        return counters[counter.ordinal()].sum();
+    }
+
+    void record(Handler handler, long startNanos)
+    {
+        timers[handler.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    // Close the current one minute window once it has elapsed, called from the game tick
+    synchronized void roll(long nowMs)
+    {
+        if (windowStartMs == 0)
+        {
+            windowStartMs = nowMs;
+            snapshot(windowStart);
+            return;
+        }
+        if (nowMs - windowStartMs < WINDOW_MS)
+        {
+            return;
+        }
+
+        long[] current = new long[windowStart.length];
+        snapshot(current);
+        for (int i = 0; i < current.length; i++)
+        {
+            lastWindow[i] = current[i] - windowStart[i];
+            windowStart[i] = current[i];
+        }
+        windowStartMs = nowMs;
+    }
+
+    // Human readable summary, shared by the debug overlay and the log dump
+    synchronized List<String[]> describe()
+    {
+        List<String[]> lines = new ArrayList<>();
+        for (Handler handler : Handler.values())
+        {
+            Timer timer = timers[handler.ordinal()];
+            lines.add(new String[]{
+                    handler.label,
+                    String.format("%d/min %.1fus avg %dus p99 %dus max",
+                            lastWindow[Counter.values().length + handler.ordinal()],
+                            timer.meanMicros(), timer.percentileMicros(0.99), timer.max.get() / 1000)
+            });
+        }
+        for (Counter counter : Counter.values())
+        {
+            lines.add(new String[]{
+                    counter.label,
+                    String.format("%d/min (%d total)", lastWindow[counter.ordinal()], counters[counter.ordinal()].sum())
+            });
+        }
+        return lines;
+    }
+
+    private void snapshot(long[] into)
+    {
+        int n = Counter.values().length;
+        for (int i = 0; i < n; i++)
+        {
+            into[i] = counters[i].sum();
+        }
+        for (int i = 0; i < timers.length; i++)
+        {
+            into[n + i] = timers[i].count.sum();
+        }
+    }
+
+    // Log2-bucketed latency histogram in microseconds
+    private static final class Timer
+    {
+        private static final int BUCKETS = 32;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+        private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+        Timer()
+        {
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos)
+        {
+            count.increment();
+            totalNanos.add(nanos);
+            max.accumulate(nanos);
+
+            long micros = nanos / 1000;
+            int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets[bucket].increment();
+        }
+
+        double meanMicros()
+        {
+            long n = count.sum();
+            return n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+        }
+
+        // Upper bound of the bucket holding the given percentile
+        long percentileMicros(double percentile)
+        {
+            long n = count.sum();
+            if (n == 0)
+            {
+                return 0;
+            }
+
+            long target = (long) Math.ceil(n * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                seen += buckets[i].sum();
+                if (seen >= target)
+                {
+                    return i == 0 ? 1 : 1L << i;
+                }
+            }
+            return 1L << (BUCKETS - 1);
+        }
+    }
+}
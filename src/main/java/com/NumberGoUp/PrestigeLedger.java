@@ -0,0 +1,298 @@
+package com.NumberGoUp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.config.ConfigManager;
+
+// Per-skill prestige counts and the most recent resets of the active RS profile.
+//
+// Stored as one RS profile config value in the StateCodec format: the counts, then the history
+// oldest first, each reset as deltas against the previous one (time) and the same skill's
+// previous reset (real XP). The history is capped at MAX_HISTORY, so the value stays a couple of
+// kilobytes however many resets there have been. A profile's ledger is only read the first time
+// it is used, and written in a debounced flush like the session state.
+@Slf4j
+@Singleton
+class PrestigeLedger
+{
+    static final String PRESTIGE_KEY = "prestige";
+    static final int VERSION = 1;
+    static final int MAX_HISTORY = 256;
+
+    // Resets aren't in the state log, so the ledger keeps a short flush interval of its own
+    static final long FLUSH_INTERVAL_MS = 10_000;
+
+    private static final Skill[] SKILLS = Skill.values();
+    private static final int SKILL_COUNT = SKILLS.length;
+
+    static final class Reset
+    {
+        final long timeMs;
+        final Skill skill;
+        final int realXp;
+        final int displayLevel;
+
+        Reset(long timeMs, Skill skill, int realXp, int displayLevel)
+        {
+            this.timeMs = timeMs;
+            this.skill = skill;
+            this.realXp = realXp;
+            this.displayLevel = displayLevel;
+        }
+    }
+
+    private final ConfigManager configManager;
+    private final ScheduledExecutorService executor;
+    private final PluginMetrics metrics;
+
+    // Profile the ledger belongs to, null while logged out
+    private String profileKey;
+    private boolean loaded;
+
+    private final int[] counts = new int[SKILL_COUNT];
+    private final Deque<Reset> history = new ArrayDeque<>();
+
+    private boolean dirty;
+    private long dirtySince;
+
+    @Inject
+    PrestigeLedger(ConfigManager configManager, ScheduledExecutorService executor, PluginMetrics metrics)
+    {
+        this.configManager = configManager;
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    // Switch to another RS profile's ledger, writing out the current one first. Nothing is read
+    // until the new ledger is used.
+    synchronized void setProfile(String profileKey)
+    {
+        if (profileKey != null && profileKey.equals(this.profileKey))
+        {
+            return;
+        }
+
+        flush();
+        this.profileKey = profileKey;
+        loaded = false;
+        clear();
+    }
+
+    // Count a skill's resets, the history keeps one entry for the batch
+    synchronized void record(Skill skill, int resets, int realXp, int displayLevel)
+    {
+        if (profileKey == null || resets <= 0)
+        {
+            return;
+        }
+        ensureLoaded();
+
+        int i = skill.ordinal();
+        counts[i] = (int) Math.min(Integer.MAX_VALUE, (long) counts[i] + resets);
+        history.addLast(new Reset(System.currentTimeMillis(), skill, realXp, displayLevel));
+        while (history.size() > MAX_HISTORY)
+        {
+            history.removeFirst();
+        }
+
+        if (!dirty)
+        {
+            dirty = true;
+            dirtySince = System.currentTimeMillis();
+        }
+    }
+
+    synchronized int getCount(Skill skill)
+    {
+        ensureLoaded();
+        return counts[skill.ordinal()];
+    }
+
+    // Resets newest first, at most limit of them
+    synchronized List<Reset> getRecent(int limit)
+    {
+        ensureLoaded();
+        List<Reset> recent = new ArrayList<>(Math.min(limit, history.size()));
+        for (Iterator<Reset> it = history.descendingIterator(); it.hasNext() && recent.size() < limit; )
+        {
+            recent.add(it.next());
+        }
+        return recent;
+    }
+
+    // Encoded form of the ledger, null while logged out
+    synchronized String snapshot()
+    {
+        if (profileKey == null)
+        {
+            return null;
+        }
+        ensureLoaded();
+        return encode(counts, history);
+    }
+
+    // Swap the ledger for decoded counts and history, written out by the next flush
+    synchronized void replace(int[] newCounts, Deque<Reset> newHistory)
+    {
+        if (profileKey == null)
+        {
+            return;
+        }
+
+        loaded = true;
+        System.arraycopy(newCounts, 0, counts, 0, SKILL_COUNT);
+        history.clear();
+        history.addAll(newHistory);
+        dirty = true;
+        dirtySince = System.currentTimeMillis();
+    }
+
+    synchronized boolean isFlushDue(long now)
+    {
+        return dirty && now - dirtySince >= FLUSH_INTERVAL_MS;
+    }
+
+    // Write the ledger as a single value on the client executor
+    synchronized void flush()
+    {
+        if (!dirty || profileKey == null)
+        {
+            return;
+        }
+
+        String key = profileKey;
+        String encoded = encode(counts, history);
+        dirty = false;
+        metrics.increment(PluginMetrics.Counter.CONFIG_WRITES);
+        executor.execute(() -> configManager.setConfiguration(StatePersister.CONFIG_GROUP, key, PRESTIGE_KEY, encoded));
+    }
+
+    private void ensureLoaded()
+    {
+        if (loaded || profileKey == null)
+        {
+            return;
+        }
+        loaded = true;
+
+        String encoded = configManager.getConfiguration(StatePersister.CONFIG_GROUP, profileKey, PRESTIGE_KEY);
+        metrics.increment(PluginMetrics.Counter.CONFIG_READS);
+        if (encoded != null && !decode(encoded, counts, history))
+        {
+            log.warn("Discarding corrupt Number Go Up prestige ledger for profile {}", profileKey);
+            clear();
+        }
+    }
+
+    private void clear()
+    {
+        for (int i = 0; i < SKILL_COUNT; i++)
+        {
+            counts[i] = 0;
+        }
+        history.clear();
+        dirty = false;
+    }
+
+    static String encode(int[] counts, Deque<Reset> history)
+    {
+        StateCodec.Writer out = new StateCodec.Writer();
+        out.writeByte(VERSION);
+
+        long mask = 0;
+        for (int i = 0; i < counts.length; i++)
+        {
+            if (counts[i] != 0)
+            {
+                mask |= 1L << i;
+            }
+        }
+        out.writeVarLong(mask);
+        for (long m = mask; m != 0; m &= m - 1)
+        {
+            out.writeVarLong(counts[Long.numberOfTrailingZeros(m)]);
+        }
+
+        int[] previousXp = new int[SKILL_COUNT];
+        long previousTime = 0;
+        out.writeVarLong(history.size());
+        for (Reset reset : history)
+        {
+            int i = reset.skill.ordinal();
+            out.writeByte(i);
+            out.writeVarLong(StateCodec.zigzag(reset.timeMs - previousTime));
+            out.writeVarLong(StateCodec.zigzag((long) reset.realXp - previousXp[i]));
+            out.writeByte(reset.displayLevel);
+            previousTime = reset.timeMs;
+            previousXp[i] = reset.realXp;
+        }
+
+        return StateCodec.seal(out);
+    }
+
+    // Decode into the given counts and history, returns false if the value is corrupt or from an unknown version
+    static boolean decode(String encoded, int[] counts, Deque<Reset> history)
+    {
+        StateCodec.Reader in = StateCodec.unseal(encoded);
+        if (in == null)
+        {
+            return false;
+        }
+
+        try
+        {
+            if (in.readByte() != VERSION)
+            {
+                return false;
+            }
+
+            long mask = in.readVarLong();
+            for (; mask != 0; mask &= mask - 1)
+            {
+                int i = Long.numberOfTrailingZeros(mask);
+                long count = in.readVarLong();
+                if (i < counts.length)
+                {
+                    counts[i] = (int) count;
+                }
+            }
+
+            int[] previousXp = new int[SKILL_COUNT];
+            long previousTime = 0;
+            long size = in.readVarLong();
+            for (long n = 0; n < size; n++)
+            {
+                int i = in.readByte();
+                long time = previousTime + StateCodec.unzigzag(in.readVarLong());
+                long xpDelta = StateCodec.unzigzag(in.readVarLong());
+                int level = in.readByte();
+                previousTime = time;
+
+                // Skills this build doesn't know about are skipped
+                if (i < SKILL_COUNT && SKILLS[i] != Skill.OVERALL)
+                {
+                    int realXp = (int) (previousXp[i] + xpDelta);
+                    previousXp[i] = realXp;
+                    history.addLast(new Reset(time, SKILLS[i], realXp, level));
+                }
+            }
+            while (history.size() > MAX_HISTORY)
+            {
+                history.removeFirst();
+            }
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            return false;
+        }
+        return true;
+    }
+}
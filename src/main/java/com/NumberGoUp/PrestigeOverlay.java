@@ -0,0 +1,78 @@
+package com.NumberGoUp;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import javax.inject.Inject;
+import net.runelite.api.Skill;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+// Prestige count of every skill that has been reset, and the latest resets
+class PrestigeOverlay extends OverlayPanel
+{
+    private static final int RECENT_RESETS = 3;
+
+    private final PrestigeLedger prestige;
+
+    @Inject
+    private PrestigeOverlay(NumberGoUpPlugin plugin, PrestigeLedger prestige)
+    {
+        super(plugin);
+        this.prestige = prestige;
+        setPosition(OverlayPosition.TOP_LEFT);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        panelComponent.getChildren().add(TitleComponent.builder()
+                .text("Prestige")
+                .build());
+
+        boolean any = false;
+        for (Skill skill : Skill.values())
+        {
+            int count = skill == Skill.OVERALL ? 0 : prestige.getCount(skill);
+            if (count > 0)
+            {
+                any = true;
+                panelComponent.getChildren().add(LineComponent.builder()
+                        .left(skill.getName())
+                        .right(Integer.toString(count))
+                        .build());
+            }
+        }
+        if (!any)
+        {
+            panelComponent.getChildren().clear();
+            return null;
+        }
+
+        for (PrestigeLedger.Reset reset : prestige.getRecent(RECENT_RESETS))
+        {
+            panelComponent.getChildren().add(LineComponent.builder()
+                    .left(reset.skill.getName() + " lvl " + reset.displayLevel)
+                    .right(ago(reset.timeMs))
+                    .build());
+        }
+
+        return super.render(graphics);
+    }
+
+    // Short age of a timestamp, e.g. 5m ago, 3h ago, 2d ago
+    static String ago(long timeMs)
+    {
+        long minutes = Math.max(0, System.currentTimeMillis() - timeMs) / 60_000;
+        if (minutes < 60)
+        {
+            return minutes + "m ago";
+        }
+        if (minutes < 60 * 24)
+        {
+            return minutes / 60 + "h ago";
+        }
+        return minutes / (60 * 24) + "d ago";
+    }
+}
@@ -0,0 +1,380 @@
+package com.NumberGoUp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+
+// Which skills are reset, compiled from a rule expression or a fixed skill mask.
+//
+// Every XP or level comparison in a rule becomes an XP trigger. Between two neighbouring triggers
+// the rule's outcome can't change, so the rule is evaluated once per skill for each of those XP
+// ranges up front. Membership is then a binary search over the few triggers and a bit test, and a
+// fixed mask has no triggers at all. Immutable, so it is safe to share from CompiledSettings.
+//
+// Grammar, case insensitive:
+//   rule       := and ("or" and)*
+//   and        := not ("and" not)*
+//   not        := "not" not | atom
+//   atom       := "(" rule ")" | "all" | "combat" | SKILL
+//               | "skill" ("=" | "!=") SKILL | "skill" "in" "(" SKILL ("," SKILL)* ")"
+//               | ("realLevel" | "realXp") ("<" | "<=" | ">" | ">=" | "=" | "!=") NUMBER
+final class ResetRule
+{
+    private static final Skill[] SKILLS = Skill.values();
+    private static final int SKILL_COUNT = SKILLS.length;
+
+    static final long ALL_MASK = ~(~0L << SKILL_COUNT) & ~(1L << Skill.OVERALL.ordinal());
+    // The skills that make up the combat level
+    static final long COMBAT_MASK = (1L << Skill.ATTACK.ordinal()) | (1L << Skill.STRENGTH.ordinal())
+            | (1L << Skill.DEFENCE.ordinal()) | (1L << Skill.HITPOINTS.ordinal()) | (1L << Skill.MAGIC.ordinal())
+            | (1L << Skill.RANGED.ordinal()) | (1L << Skill.PRAYER.ordinal());
+
+    // Sorted XP triggers, and the skills reset within each range between them:
+    // rangeMasks[j] covers [triggers[j - 1], triggers[j])
+    private final int[] triggers;
+    private final long[] rangeMasks;
+
+    private ResetRule(int[] triggers, long[] rangeMasks)
+    {
+        this.triggers = triggers;
+        this.rangeMasks = rangeMasks;
+    }
+
+    // A rule resetting a fixed set of skills whatever their XP
+    static ResetRule ofMask(long mask)
+    {
+        return new ResetRule(new int[0], new long[]{mask & ALL_MASK});
+    }
+
+    // Compile a rule expression, throwing IllegalArgumentException with a readable message if it is invalid
+    static ResetRule parse(String expression)
+    {
+        Parser parser = new Parser(expression);
+        Node rule = parser.parseRule();
+        parser.expectEnd();
+
+        int[] triggers = parser.triggers.stream().mapToInt(Integer::intValue).toArray();
+        long[] rangeMasks = new long[triggers.length + 1];
+        for (int j = 0; j < rangeMasks.length; j++)
+        {
+            int xp = j == 0 ? Integer.MIN_VALUE : triggers[j - 1];
+            for (Skill skill : SKILLS)
+            {
+                if (skill != Skill.OVERALL && rule.eval(skill.ordinal(), xp))
+                {
+                    rangeMasks[j] |= 1L << skill.ordinal();
+                }
+            }
+        }
+        return new ResetRule(triggers, rangeMasks);
+    }
+
+    // Whether the skill is reset at the given real XP
+    boolean matches(Skill skill, int realXp)
+    {
+        return (rangeMasks[range(realXp)] & (1L << skill.ordinal())) != 0;
+    }
+
+    // Number of triggers at or below xp, which is the index of its range
+    private int range(int xp)
+    {
+        int low = 0;
+        int high = triggers.length;
+        while (low < high)
+        {
+            int mid = (low + high) >>> 1;
+            if (triggers[mid] <= xp)
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private interface Node
+    {
+        boolean eval(int skill, int xp);
+    }
+
+    private static final class Parser
+    {
+        private final List<String> tokens = new ArrayList<>();
+        private final TreeSet<Integer> triggers = new TreeSet<>();
+        private int pos;
+
+        Parser(String expression)
+        {
+            tokenize(expression == null ? "" : expression);
+        }
+
+        Node parseRule()
+        {
+            Node left = parseAnd();
+            while (accept("or"))
+            {
+                Node a = left;
+                Node b = parseAnd();
+                left = (skill, xp) -> a.eval(skill, xp) || b.eval(skill, xp);
+            }
+            return left;
+        }
+
+        private Node parseAnd()
+        {
+            Node left = parseNot();
+            while (accept("and"))
+            {
+                Node a = left;
+                Node b = parseNot();
+                left = (skill, xp) -> a.eval(skill, xp) && b.eval(skill, xp);
+            }
+            return left;
+        }
+
+        private Node parseNot()
+        {
+            if (accept("not"))
+            {
+                Node inner = parseNot();
+                return (skill, xp) -> !inner.eval(skill, xp);
+            }
+            return parseAtom();
+        }
+
+        private Node parseAtom()
+        {
+            if (accept("("))
+            {
+                Node inner = parseRule();
+                expect(")");
+                return inner;
+            }
+
+            String token = next("a skill, 'all', 'combat', 'skill', 'realLevel' or 'realXp'");
+            switch (token.toLowerCase())
+            {
+                case "all":
+                    return mask(ALL_MASK);
+                case "combat":
+                    return mask(COMBAT_MASK);
+                case "skill":
+                    return parseSkillTest();
+                case "reallevel":
+                    return parseComparison(true);
+                case "realxp":
+                    return parseComparison(false);
+                default:
+                    return mask(1L << skill(token).ordinal());
+            }
+        }
+
+        private Node parseSkillTest()
+        {
+            if (accept("in"))
+            {
+                expect("(");
+                long mask = 1L << skill(next("a skill")).ordinal();
+                while (accept(","))
+                {
+                    mask |= 1L << skill(next("a skill")).ordinal();
+                }
+                expect(")");
+                return mask(mask);
+            }
+
+            String op = next("'=', '!=' or 'in'");
+            long mask = 1L << skill(next("a skill")).ordinal();
+            switch (op)
+            {
+                case "=":
+                case "==":
+                    return mask(mask);
+                case "!=":
+                    return mask(ALL_MASK & ~mask);
+                default:
+                    throw error("Expected '=', '!=' or 'in' after 'skill' but found '" + op + "'");
+            }
+        }
+
+        // Comparisons become tests against XP triggers: level L starts at the XP for level L
+        private Node parseComparison(boolean level)
+        {
+            String op = next("a comparison");
+            String number = next("a number");
+            long value;
+            try
+            {
+                value = Long.parseLong(number.replace("_", ""));
+            }
+            catch (NumberFormatException e)
+            {
+                throw error("Expected a number but found '" + number + "'");
+            }
+
+            // xp >= atLeast, and xp >= above for the next value up
+            int atLeast = level ? xpForLevel(value) : clampXp(value);
+            int above = level ? xpForLevel(value + 1) : clampXp(value + 1);
+            switch (op)
+            {
+                case ">=":
+                    return atLeast(atLeast);
+                case ">":
+                    return atLeast(above);
+                case "<":
+                    return not(atLeast(atLeast));
+                case "<=":
+                    return not(atLeast(above));
+                case "=":
+                case "==":
+                {
+                    Node from = atLeast(atLeast);
+                    Node to = atLeast(above);
+                    return (skill, xp) -> from.eval(skill, xp) && !to.eval(skill, xp);
+                }
+                case "!=":
+                {
+                    Node from = atLeast(atLeast);
+                    Node to = atLeast(above);
+                    return (skill, xp) -> !from.eval(skill, xp) || to.eval(skill, xp);
+                }
+                default:
+                    throw error("Expected a comparison but found '" + op + "'");
+            }
+        }
+
+        private Node atLeast(int xp)
+        {
+            triggers.add(xp);
+            return (skill, realXp) -> realXp >= xp;
+        }
+
+        private static Node not(Node node)
+        {
+            return (skill, xp) -> !node.eval(skill, xp);
+        }
+
+        private static Node mask(long mask)
+        {
+            return (skill, xp) -> (mask & (1L << skill)) != 0;
+        }
+
+        private static int xpForLevel(long level)
+        {
+            if (level <= 1)
+            {
+                return Integer.MIN_VALUE;
+            }
+            return level > Experience.MAX_VIRT_LEVEL ? Integer.MAX_VALUE : Experience.getXpForLevel((int) level);
+        }
+
+        private static int clampXp(long xp)
+        {
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, xp));
+        }
+
+        private Skill skill(String name)
+        {
+            try
+            {
+                Skill skill = Skill.valueOf(name.toUpperCase());
+                if (skill != Skill.OVERALL)
+                {
+                    return skill;
+                }
+            }
+            catch (IllegalArgumentException e)
+            {
+                // Reported below
+            }
+            throw error("Unknown skill '" + name + "'");
+        }
+
+        void expectEnd()
+        {
+            if (pos < tokens.size())
+            {
+                throw error("Unexpected '" + tokens.get(pos) + "'");
+            }
+        }
+
+        private boolean accept(String token)
+        {
+            if (pos < tokens.size() && tokens.get(pos).equalsIgnoreCase(token))
+            {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String token)
+        {
+            if (!accept(token))
+            {
+                throw error("Expected '" + token + "' but found " + (pos < tokens.size() ? "'" + tokens.get(pos) + "'" : "the end"));
+            }
+        }
+
+        private String next(String expected)
+        {
+            if (pos >= tokens.size())
+            {
+                throw error("Expected " + expected + " but found the end");
+            }
+            return tokens.get(pos++);
+        }
+
+        private IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException(message);
+        }
+
+        private void tokenize(String expression)
+        {
+            int i = 0;
+            while (i < expression.length())
+            {
+                char c = expression.charAt(i);
+                if (Character.isWhitespace(c))
+                {
+                    i++;
+                }
+                else if (Character.isLetterOrDigit(c) || c == '_')
+                {
+                    int start = i;
+                    while (i < expression.length() && (Character.isLetterOrDigit(expression.charAt(i)) || expression.charAt(i) == '_'))
+                    {
+                        i++;
+                    }
+                    tokens.add(expression.substring(start, i));
+                }
+                else if (c == '<' || c == '>' || c == '!' || c == '=')
+                {
+                    boolean twoChar = i + 1 < expression.length() && expression.charAt(i + 1) == '=';
+                    tokens.add(expression.substring(i, twoChar ? i + 2 : i + 1));
+                    i += twoChar ? 2 : 1;
+                }
+                else if (c == '(' || c == ')' || c == ',')
+                {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                }
+                else
+                {
+                    throw error("Unexpected '" + c + "'");
+                }
+            }
+
+            if (tokens.isEmpty())
+            {
+                throw error("The rule is empty");
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.NumberGoUp;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+import net.runelite.client.config.ConfigItem;
+
+// Developer recorder mode: writes the StatChanged, GameTick and ConfigChanged events the plugin
+// sees to a SessionRecording file, so a session can be replayed headlessly later.
+@Slf4j
+class SessionRecorder
+{
+    static final File RECORDING_DIR = new File(new File(RuneLite.RUNELITE_DIR, "number-go-up"), "recordings");
+
+    private SessionRecording.Writer writer;
+    private File file;
+
+    boolean isRecording()
+    {
+        return writer != null;
+    }
+
+    // Open a new recording, starting with a snapshot of the config, persisted state and real stats
+    void start(NumberGoUpConfig config, String persistedState, SkillStateTable state)
+    {
+        if (writer != null)
+        {
+            return;
+        }
+
+        if (!RECORDING_DIR.exists() && !RECORDING_DIR.mkdirs())
+        {
+            log.warn("Unable to create recording directory {}", RECORDING_DIR);
+            return;
+        }
+
+        file = new File(RECORDING_DIR, "session-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".ngur");
+        long now = System.currentTimeMillis();
+        try
+        {
+            writer = new SessionRecording.Writer(new FileOutputStream(file));
+
+            for (Method method : NumberGoUpConfig.class.getMethods())
+            {
+                ConfigItem item = method.getAnnotation(ConfigItem.class);
+                if (item == null || method.getParameterCount() != 0)
+                {
+                    continue;
+                }
+                Object value = method.invoke(config);
+                writer.config(now, item.keyName(), value instanceof Enum ? ((Enum<?>) value).name() : String.valueOf(value));
+            }
+            writer.config(now, StatePersister.STATE_KEY, persistedState);
+
+            for (Skill skill : Skill.values())
+            {
+                if (skill != Skill.OVERALL && state.hasReal(skill))
+                {
+                    writer.stat(now, skill, state.getRealXp(skill), state.getRealBoost(skill));
+                }
+            }
+            writer.start(now);
+            log.info("Recording Number Go Up session to {}", file);
+        }
+        catch (Exception e)
+        {
+            log.warn("Unable to start session recording", e);
+            close();
+        }
+    }
+
+    void stop()
+    {
+        if (writer != null)
+        {
+            log.info("Finished recording Number Go Up session to {}", file);
+            close();
+        }
+    }
+
+    void statChanged(Skill skill, int xp, int boostedLevel)
+    {
+        if (writer == null)
+        {
+            return;
+        }
+        try
+        {
+            writer.stat(System.currentTimeMillis(), skill, xp, boostedLevel);
+        }
+        catch (IOException e)
+        {
+            fail(e);
+        }
+    }
+
+    void gameTick()
+    {
+        if (writer == null)
+        {
+            return;
+        }
+        try
+        {
+            writer.tick(System.currentTimeMillis());
+        }
+        catch (IOException e)
+        {
+            fail(e);
+        }
+    }
+
+    void configChanged(String key, String value)
+    {
+        if (writer == null)
+        {
+            return;
+        }
+        try
+        {
+            writer.config(System.currentTimeMillis(), key, value);
+        }
+        catch (IOException e)
+        {
+            fail(e);
+        }
+    }
+
+    private void fail(IOException e)
+    {
+        log.warn("Session recording failed, stopping", e);
+        close();
+    }
+
+    private void close()
+    {
+        try
+        {
+            if (writer != null)
+            {
+                writer.close();
+            }
+        }
+        catch (IOException e)
+        {
+            log.debug("Unable to close session recording", e);
+        }
+        writer = null;
+        file = null;
+    }
+}
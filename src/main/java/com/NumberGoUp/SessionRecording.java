@@ -0,0 +1,199 @@
+package com.NumberGoUp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import net.runelite.api.Skill;
+
+// Compact binary format for recorded plugin sessions.
+//
+// A recording starts with a magic number and version, followed by events. Every event is a type
+// byte and a varint of milliseconds since the previous event, then its payload. Events before
+// START describe the initial config, persisted state and real stats; events after it are replayed
+// into the plugin in order.
+final class SessionRecording
+{
+    static final int MAGIC = 0x4E475552; // "NGUR"
+    static final int VERSION = 1;
+
+    static final int STAT = 1;
+    static final int TICK = 2;
+    static final int CONFIG = 3;
+    static final int START = 4;
+
+    private static final Skill[] SKILLS = Skill.values();
+
+    private SessionRecording()
+    {
+    }
+
+    interface Listener
+    {
+        void start(long timeMs) throws Exception;
+
+        void stat(long timeMs, Skill skill, int xp, int boostedLevel) throws Exception;
+
+        void tick(long timeMs) throws Exception;
+
+        // value is null when the key was unset
+        void config(long timeMs, String key, String value) throws Exception;
+    }
+
+    static final class Writer implements Closeable
+    {
+        private final DataOutputStream out;
+        private long lastTimeMs = -1;
+
+        Writer(OutputStream out) throws IOException
+        {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+        }
+
+        void start(long timeMs) throws IOException
+        {
+            header(START, timeMs);
+        }
+
+        void stat(long timeMs, Skill skill, int xp, int boostedLevel) throws IOException
+        {
+            header(STAT, timeMs);
+            out.writeByte(skill.ordinal());
+            writeVarInt(xp);
+            writeVarInt(boostedLevel);
+        }
+
+        void tick(long timeMs) throws IOException
+        {
+            header(TICK, timeMs);
+        }
+
+        void config(long timeMs, String key, String value) throws IOException
+        {
+            header(CONFIG, timeMs);
+            out.writeUTF(key);
+            out.writeBoolean(value != null);
+            if (value != null)
+            {
+                out.writeUTF(value);
+            }
+        }
+
+        void flush() throws IOException
+        {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            out.close();
+        }
+
+        private void header(int type, long timeMs) throws IOException
+        {
+            long delta = lastTimeMs < 0 ? 0 : Math.max(0, timeMs - lastTimeMs);
+            lastTimeMs = timeMs;
+            out.writeByte(type);
+            writeVarInt(delta);
+        }
+
+        private void writeVarInt(long value) throws IOException
+        {
+            while ((value & ~0x7FL) != 0)
+            {
+                out.writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+    }
+
+    // Read a whole recording, passing each event to the listener. Returns the number of events read.
+    static long read(InputStream stream, Listener listener) throws Exception
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+        if (in.readInt() != MAGIC)
+        {
+            throw new IOException("Not a Number Go Up recording");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported recording version " + version);
+        }
+
+        long timeMs = 0;
+        long events = 0;
+        while (true)
+        {
+            int type = in.read();
+            if (type < 0)
+            {
+                return events;
+            }
+
+            try
+            {
+                timeMs += readVarInt(in);
+                switch (type)
+                {
+                    case START:
+                        listener.start(timeMs);
+                        break;
+                    case STAT:
+                    {
+                        int ordinal = in.readUnsignedByte();
+                        int xp = (int) readVarInt(in);
+                        int boostedLevel = (int) readVarInt(in);
+                        if (ordinal < SKILLS.length)
+                        {
+                            listener.stat(timeMs, SKILLS[ordinal], xp, boostedLevel);
+                        }
+                        break;
+                    }
+                    case TICK:
+                        listener.tick(timeMs);
+                        break;
+                    case CONFIG:
+                    {
+                        String key = in.readUTF();
+                        String value = in.readBoolean() ? in.readUTF() : null;
+                        listener.config(timeMs, key, value);
+                        break;
+                    }
+                    default:
+                        throw new IOException("Unknown recording event type " + type);
+                }
+            }
+            catch (EOFException e)
+            {
+                // A recording cut off mid-event (e.g. the client died) ends at the last complete event
+                return events;
+            }
+            events++;
+        }
+    }
+
+    private static long readVarInt(DataInputStream in) throws IOException
+    {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+            {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
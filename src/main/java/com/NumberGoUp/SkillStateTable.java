@@ -0,0 +1,127 @@
+package com.NumberGoUp;
+
+import java.util.Arrays;
+import net.runelite.api.Skill;
+
+// Per-skill plugin state in primitive arrays indexed by Skill.ordinal().
+// Optional values (milestones, reset start points) are tracked with presence bits.
+class SkillStateTable
+{
+    static final int SKILL_COUNT = Skill.values().length;
+
+    // XP gained since last reset for each skill
+    private final long[] sessionXp = new long[SKILL_COUNT];
+
+    // Last milestone XP for threshold mode
+    private final int[] lastMilestoneXp = new int[SKILL_COUNT];
+    private long milestonePresent;
+
+    // XP at which we started resetting each skill (for non-threshold modes)
+    private final int[] resetStartXp = new int[SKILL_COUNT];
+    private long resetStartPresent;
+
+    // Actual skill values as reported by the client, also used to calculate gains
+    private final int[] realXp = new int[SKILL_COUNT];
+    private final int[] realBoost = new int[SKILL_COUNT];
+    private long realPresent;
+
+    long getSessionXp(Skill skill)
+    {
+        return sessionXp[skill.ordinal()];
+    }
+
+    void setSessionXp(Skill skill, long xp)
+    {
+        sessionXp[skill.ordinal()] = xp;
+    }
+
+    boolean hasLastMilestone(Skill skill)
+    {
+        return (milestonePresent & bit(skill)) != 0;
+    }
+
+    // Last milestone, 0 if none has been set
+    int getLastMilestone(Skill skill)
+    {
+        return lastMilestoneXp[skill.ordinal()];
+    }
+
+    void setLastMilestone(Skill skill, int xp)
+    {
+        lastMilestoneXp[skill.ordinal()] = xp;
+        milestonePresent |= bit(skill);
+    }
+
+    void clearLastMilestone(Skill skill)
+    {
+        lastMilestoneXp[skill.ordinal()] = 0;
+        milestonePresent &= ~bit(skill);
+    }
+
+    boolean hasResetStart(Skill skill)
+    {
+        return (resetStartPresent & bit(skill)) != 0;
+    }
+
+    int getResetStart(Skill skill)
+    {
+        return resetStartXp[skill.ordinal()];
+    }
+
+    void setResetStart(Skill skill, int xp)
+    {
+        resetStartXp[skill.ordinal()] = xp;
+        resetStartPresent |= bit(skill);
+    }
+
+    void clearResetStart(Skill skill)
+    {
+        resetStartXp[skill.ordinal()] = 0;
+        resetStartPresent &= ~bit(skill);
+    }
+
+    boolean hasReal(Skill skill)
+    {
+        return (realPresent & bit(skill)) != 0;
+    }
+
+    int getRealXp(Skill skill)
+    {
+        return realXp[skill.ordinal()];
+    }
+
+    int getRealBoost(Skill skill)
+    {
+        return realBoost[skill.ordinal()];
+    }
+
+    void setReal(Skill skill, int xp, int boost)
+    {
+        realXp[skill.ordinal()] = xp;
+        realBoost[skill.ordinal()] = boost;
+        realPresent |= bit(skill);
+    }
+
+    // Forget the real skill values, e.g. on logout so the next account's stats aren't taken as gains
+    void clearReal()
+    {
+        Arrays.fill(realXp, 0);
+        Arrays.fill(realBoost, 0);
+        realPresent = 0;
+    }
+
+    // Drop all reset progress, keeping the real skill values
+    void clearProgress()
+    {
+        Arrays.fill(sessionXp, 0);
+        Arrays.fill(lastMilestoneXp, 0);
+        Arrays.fill(resetStartXp, 0);
+        milestonePresent = 0;
+        resetStartPresent = 0;
+    }
+
+    private static long bit(Skill skill)
+    {
+        return 1L << skill.ordinal();
+    }
+}
@@ -0,0 +1,172 @@
+package com.NumberGoUp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.CRC32;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+
+// Named backup files of an account's full plugin state in the RuneLite directory. Names are chosen
+// by the user or default to the account hash, which unlike the RS profile key is the same on every
+// install, so a snapshot can be carried to another machine.
+//
+// A snapshot is a fixed header (magic, version, payload length and a CRC32 of the payload)
+// followed by the encoded session state and prestige ledger. It is written to a temp file, forced
+// to disk and then atomically moved over the previous snapshot, so a snapshot on disk is always
+// complete. A read is a single read of the file that decodes every section up front, so an import
+// either has all of it or fails. Blocking, so only used from the client executor.
+@Singleton
+class SnapshotStore
+{
+    static final File SNAPSHOT_DIR = new File(new File(RuneLite.RUNELITE_DIR, "number-go-up"), "snapshots");
+
+    static final int MAGIC = 0x4E475553; // "NGUS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private static final String SUFFIX = ".ngs";
+
+    private static final int FIELD_COUNT = StatePersister.Field.values().length;
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    // Decoded contents of a snapshot
+    static final class Snapshot
+    {
+        final long[][] state = new long[FIELD_COUNT][SKILL_COUNT];
+        final long[] statePresent = new long[FIELD_COUNT];
+        final int[] prestigeCounts = new int[SKILL_COUNT];
+        final Deque<PrestigeLedger.Reset> prestigeHistory = new ArrayDeque<>();
+    }
+
+    private final File root;
+
+    @Inject
+    SnapshotStore()
+    {
+        this(SNAPSHOT_DIR);
+    }
+
+    SnapshotStore(File root)
+    {
+        this.root = root;
+    }
+
+    // Name used when none is given, null while logged out
+    static String defaultName(long accountHash)
+    {
+        return accountHash == -1 ? null : "account-" + Long.toUnsignedString(accountHash);
+    }
+
+    File file(String name)
+    {
+        return new File(root, StatePersister.fileName(name) + SUFFIX);
+    }
+
+    // Write a snapshot of the encoded session state (StateCodec) and prestige ledger, replacing the
+    // previous one of that name only once the new one is on disk
+    File write(String name, String encodedState, String encodedPrestige) throws IOException
+    {
+        if (!root.exists() && !root.mkdirs())
+        {
+            throw new IOException("Unable to create " + root);
+        }
+
+        byte[] state = (encodedState == null ? "" : encodedState).getBytes(StandardCharsets.US_ASCII);
+        byte[] prestige = (encodedPrestige == null ? "" : encodedPrestige).getBytes(StandardCharsets.US_ASCII);
+        int payloadLength = 8 + state.length + prestige.length;
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadLength);
+        buffer.position(HEADER_SIZE);
+        buffer.putInt(state.length).put(state);
+        buffer.putInt(prestige.length).put(prestige);
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payloadLength);
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, (short) VERSION);
+        buffer.putShort(6, (short) 0);
+        buffer.putInt(8, payloadLength);
+        buffer.putInt(12, (int) crc.getValue());
+        buffer.flip();
+
+        Path target = file(name).toPath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target.toFile();
+    }
+
+    // Read and decode a snapshot, throwing if there is none or any part of it is corrupt
+    Snapshot read(String name) throws IOException
+    {
+        File file = file(name);
+        if (!file.exists())
+        {
+            throw new IOException("No snapshot at " + file);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+        {
+            throw new IOException("Not a snapshot: " + file);
+        }
+        if (buffer.getShort(4) != VERSION)
+        {
+            throw new IOException("Unsupported snapshot version " + buffer.getShort(4));
+        }
+
+        int payloadLength = buffer.getInt(8);
+        if (payloadLength < 8 || payloadLength != buffer.remaining() - HEADER_SIZE)
+        {
+            throw new IOException("Truncated snapshot: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), HEADER_SIZE, payloadLength);
+        if ((int) crc.getValue() != buffer.getInt(12))
+        {
+            throw new IOException("Snapshot checksum mismatch: " + file);
+        }
+
+        buffer.position(HEADER_SIZE);
+        String state = readSection(buffer);
+        String prestige = readSection(buffer);
+
+        Snapshot snapshot = new Snapshot();
+        if (!StateCodec.decode(state, snapshot.state, snapshot.statePresent)
+                || (!prestige.isEmpty() && !PrestigeLedger.decode(prestige, snapshot.prestigeCounts, snapshot.prestigeHistory)))
+        {
+            throw new IOException("Corrupt snapshot contents: " + file);
+        }
+        return snapshot;
+    }
+
+    private static String readSection(ByteBuffer buffer) throws IOException
+    {
+        int length = buffer.remaining() >= 4 ? buffer.getInt() : -1;
+        if (length < 0 || length > buffer.remaining())
+        {
+            throw new IOException("Corrupt snapshot section");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
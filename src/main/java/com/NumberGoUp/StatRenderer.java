@@ -0,0 +1,130 @@
+package com.NumberGoUp;
+
+import javax.inject.Inject;
+import net.runelite.api.Client;
+import net.runelite.api.Skill;
+
+// Pushes display values into the client's skill arrays, only touching skills whose values actually differ
+class StatRenderer
+{
+    private static final int SKILL_COUNT = Skill.values().length;
+    private static final Skill[] SKILLS = Skill.values();
+
+    private final Client client;
+
+    // Last values pushed for each skill, so we know what the client should currently be showing
+    private final int[] pushedLevel = new int[SKILL_COUNT];
+    private final int[] pushedXp = new int[SKILL_COUNT];
+    private final int[] pushedBoost = new int[SKILL_COUNT];
+    private final boolean[] pushed = new boolean[SKILL_COUNT];
+
+    // Client arrays fetched once per pass
+    private int[] realLevels;
+    private int[] experiences;
+    private int[] boostedLevels;
+
+    private int queuedThisPass;
+
+    @Inject
+    StatRenderer(Client client)
+    {
+        this.client = client;
+    }
+
+    // Fetch the client arrays once for a batch of renders
+    void beginPass()
+    {
+        realLevels = client.getRealSkillLevels();
+        experiences = client.getSkillExperiences();
+        boostedLevels = client.getBoostedSkillLevels();
+        queuedThisPass = 0;
+    }
+
+    // Release the client arrays, returns how many skills were queued during the pass
+    int endPass()
+    {
+        realLevels = null;
+        experiences = null;
+        boostedLevels = null;
+        return queuedThisPass;
+    }
+
+    // Write a skill's display values, returns true if anything had to be written
+    boolean render(Skill skill, int level, int xp, int boost)
+    {
+        boolean standalone = realLevels == null;
+        if (standalone)
+        {
+            beginPass();
+        }
+
+        int i = skill.ordinal();
+        boolean changed = realLevels[i] != level || experiences[i] != xp || boostedLevels[i] != boost;
+
+        if (changed)
+        {
+            realLevels[i] = level;
+            experiences[i] = xp;
+            boostedLevels[i] = boost;
+            client.queueChangedSkill(skill);
+            queuedThisPass++;
+        }
+
+        pushedLevel[i] = level;
+        pushedXp[i] = xp;
+        pushedBoost[i] = boost;
+        pushed[i] = true;
+
+        if (standalone)
+        {
+            endPass();
+        }
+        return changed;
+    }
+
+    // Put back any pushed values the client has since overwritten with real ones, returns how many
+    // skills had to be restored. With nothing clobbered this is a compare of the three arrays.
+    int reapply()
+    {
+        int[] levels = client.getRealSkillLevels();
+        int[] xps = client.getSkillExperiences();
+        int[] boosts = client.getBoostedSkillLevels();
+
+        int restored = 0;
+        for (int i = 0; i < SKILL_COUNT; i++)
+        {
+            if (!pushed[i] || (levels[i] == pushedLevel[i] && xps[i] == pushedXp[i] && boosts[i] == pushedBoost[i]))
+            {
+                continue;
+            }
+
+            levels[i] = pushedLevel[i];
+            xps[i] = pushedXp[i];
+            boosts[i] = pushedBoost[i];
+            client.queueChangedSkill(SKILLS[i]);
+            restored++;
+        }
+        return restored;
+    }
+
+    // Forget everything pushed, so the next pass re-checks every skill
+    void invalidate()
+    {
+        for (int i = 0; i < SKILL_COUNT; i++)
+        {
+            pushed[i] = false;
+        }
+    }
+
+    // Queue every skill so the client redraws the whole skills tab
+    void queueAll()
+    {
+        for (Skill skill : SKILLS)
+        {
+            if (skill != Skill.OVERALL)
+            {
+                client.queueChangedSkill(skill);
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.NumberGoUp;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+// Compact encoding of the persisted per-skill state into a single config value.
+//
+// Layout: version byte, field count, then per field a presence mask followed by one zigzag varint
+// per present skill (in ordinal order), and finally a CRC32 of everything before it. The bytes are
+// stored as unpadded base64.
+final class StateCodec
+{
+    static final int VERSION = 1;
+
+    private static final int CRC_BYTES = 4;
+
+    private StateCodec()
+    {
+    }
+
+    static String encode(long[][] values, long[] present)
+    {
+        Writer out = new Writer();
+        out.writeByte(VERSION);
+        out.writeVarLong(values.length);
+
+        for (int f = 0; f < values.length; f++)
+        {
+            long mask = present[f];
+            out.writeVarLong(mask);
+            while (mask != 0)
+            {
+                int i = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+                out.writeVarLong(zigzag(values[f][i]));
+            }
+        }
+
+        return seal(out);
+    }
+
+    // Append the CRC and base64 encode, shared with the other values stored in this format
+    static String seal(Writer out)
+    {
+        CRC32 crc = new CRC32();
+        crc.update(out.buf, 0, out.len);
+        long checksum = crc.getValue();
+        for (int shift = 24; shift >= 0; shift -= 8)
+        {
+            out.writeByte((int) (checksum >>> shift));
+        }
+
+        return Base64.getEncoder().withoutPadding().encodeToString(Arrays.copyOf(out.buf, out.len));
+    }
+
+    // Reader over a sealed value's body, null if it isn't valid base64 or the CRC doesn't match
+    static Reader unseal(String encoded)
+    {
+        byte[] bytes;
+        try
+        {
+            bytes = Base64.getDecoder().decode(encoded);
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+
+        if (bytes.length < 1 + CRC_BYTES)
+        {
+            return null;
+        }
+
+        int bodyLength = bytes.length - CRC_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bodyLength);
+        long expected = 0;
+        for (int i = bodyLength; i < bytes.length; i++)
+        {
+            expected = (expected << 8) | (bytes[i] & 0xFF);
+        }
+        return crc.getValue() == expected ? new Reader(bytes, bodyLength) : null;
+    }
+
+    // Decode into the given arrays, returns false (leaving them cleared) if the value is corrupt or from an unknown version
+    static boolean decode(String encoded, long[][] values, long[] present)
+    {
+        clear(values, present);
+
+        Reader in = unseal(encoded);
+        if (in == null)
+        {
+            return false;
+        }
+
+        try
+        {
+            if (in.readByte() != VERSION)
+            {
+                return false;
+            }
+
+            long fieldCount = in.readVarLong();
+            for (int f = 0; f < fieldCount; f++)
+            {
+                long mask = in.readVarLong();
+                while (mask != 0)
+                {
+                    int i = Long.numberOfTrailingZeros(mask);
+                    mask &= mask - 1;
+                    long value = unzigzag(in.readVarLong());
+
+                    // Fields or skills this build doesn't know about are skipped
+                    if (f < values.length && i < values[f].length)
+                    {
+                        values[f][i] = value;
+                        present[f] |= 1L << i;
+                    }
+                }
+            }
+        }
+        catch (IndexOutOfBoundsException e)
+        {
+            clear(values, present);
+            return false;
+        }
+
+        return true;
+    }
+
+    private static void clear(long[][] values, long[] present)
+    {
+        for (int f = 0; f < values.length; f++)
+        {
+            Arrays.fill(values[f], 0);
+            present[f] = 0;
+        }
+    }
+
+    static long zigzag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static final class Writer
+    {
+        private byte[] buf = new byte[64];
+        private int len;
+
+        void writeByte(int b)
+        {
+            if (len == buf.length)
+            {
+                buf = Arrays.copyOf(buf, len * 2);
+            }
+            buf[len++] = (byte) b;
+        }
+
+        void writeVarLong(long value)
+        {
+            while ((value & ~0x7FL) != 0)
+            {
+                writeByte((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            writeByte((int) value);
+        }
+    }
+
+    // Reads past the end throw IndexOutOfBoundsException
+    static final class Reader
+    {
+        private final byte[] buf;
+        private final int limit;
+        private int pos;
+
+        Reader(byte[] buf, int limit)
+        {
+            this.buf = buf;
+            this.limit = limit;
+        }
+
+        int readByte()
+        {
+            if (pos >= limit)
+            {
+                throw new IndexOutOfBoundsException();
+            }
+            return buf[pos++] & 0xFF;
+        }
+
+        long readVarLong()
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                {
+                    return value;
+                }
+            }
+            throw new IndexOutOfBoundsException();
+        }
+    }
+}
@@ -0,0 +1,519 @@
+package com.NumberGoUp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.inject.Inject;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.config.ConfigManager;
+
+// Write-behind persistence for the per-skill session state, kept per RuneScape profile.
+// Values are staged on every change and compared against what was last written. Once anything
+// differs, the whole state is encoded into a single RS profile config value and written in one
+// debounced flush on the client executor. Every staged change is also appended to a StateWal, so
+// flushes can be rare without a crash losing what was staged since the last one.
+@Slf4j
+class StatePersister
+{
+    static final String CONFIG_GROUP = "numbergoup";
+    static final String STATE_KEY = "state";
+
+    // How long changes may sit in memory before they are written out, the log covers them meanwhile
+    static final long FLUSH_INTERVAL_MS = 60_000;
+
+    private static final Skill[] SKILLS = Skill.values();
+
+    enum Field
+    {
+        SESSION_XP("sessionXp_"),
+        LAST_MILESTONE("lastMilestone_"),
+        RESET_START_XP("resetStartXp_");
+
+        // Prefix of the per-skill keys used before the state was stored as one value
+        private final String legacyKeyPrefix;
+
+        Field(String legacyKeyPrefix)
+        {
+            this.legacyKeyPrefix = legacyKeyPrefix;
+        }
+
+        String legacyKey(Skill skill)
+        {
+            return legacyKeyPrefix + skill.name().toLowerCase();
+        }
+
+        boolean isLegacyKey(String key)
+        {
+            return key.startsWith(legacyKeyPrefix);
+        }
+    }
+
+    private static final int FIELD_COUNT = Field.values().length;
+
+    // Recently used profiles kept hydrated, so switching back to one doesn't reload it
+    static final int MAX_CACHED_PROFILES = 4;
+
+    private final ConfigManager configManager;
+    private final ScheduledExecutorService executor;
+    private final PluginMetrics metrics;
+    private final StateWal wal;
+
+    // Hydrated profiles by RS profile key, least recently used first
+    private final Map<String, Profile> profiles = new LinkedHashMap<String, Profile>(8, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Profile> eldest)
+        {
+            if (size() <= MAX_CACHED_PROFILES)
+            {
+                return false;
+            }
+            flush(eldest.getValue());
+            return true;
+        }
+    };
+
+    // Profile that stage and flush apply to, null while logged out
+    private Profile active;
+
+    @Inject
+    StatePersister(ConfigManager configManager, ScheduledExecutorService executor, PluginMetrics metrics, StateWal wal)
+    {
+        this.configManager = configManager;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.wal = wal;
+    }
+
+    // A profile key or snapshot name made safe to use as a file name, shared by the on-disk stores
+    static String fileName(String key)
+    {
+        return key.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    static boolean isStateKey(String key)
+    {
+        if (key.equals(STATE_KEY))
+        {
+            return true;
+        }
+        for (Field field : Field.values())
+        {
+            if (field.isLegacyKey(key))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // RS profile key of the active profile, null while logged out
+    synchronized String getProfileKey()
+    {
+        return active == null ? null : active.key;
+    }
+
+    // Hydrate an RS profile's state into the cache without activating it, so the config reads can
+    // happen off the client thread ahead of load
+    synchronized void prepare(String profileKey)
+    {
+        if (profileKey == null || profiles.containsKey(profileKey) || (active != null && active.key.equals(profileKey)))
+        {
+            return;
+        }
+        profiles.put(profileKey, hydrate(profileKey));
+    }
+
+    // Make the given RS profile the active one, flushing the previous one first. A recently used
+    // or prepared profile is reused as is, anything else is loaded from the config.
+    synchronized void load(String profileKey)
+    {
+        if (active != null)
+        {
+            flush(active);
+        }
+
+        if (profileKey == null)
+        {
+            active = null;
+            return;
+        }
+        if (profileKey.equals(active == null ? null : active.key))
+        {
+            // Possibly evicted from the cache meanwhile, but still the newest copy of its state
+            profiles.put(profileKey, active);
+            return;
+        }
+
+        Profile profile = profiles.get(profileKey);
+        if (profile == null)
+        {
+            profile = hydrate(profileKey);
+            profiles.put(profileKey, profile);
+        }
+        active = profile;
+    }
+
+    // Flush and detach the active profile, e.g. on logout, so nothing is staged into it
+    // until the next account's profile is known
+    synchronized void unload()
+    {
+        load(null);
+    }
+
+    private Profile hydrate(String profileKey)
+    {
+        Profile profile = new Profile(profileKey);
+
+        String encoded = configManager.getConfiguration(CONFIG_GROUP, profileKey, STATE_KEY);
+        metrics.increment(PluginMetrics.Counter.CONFIG_READS);
+        if (encoded != null)
+        {
+            if (StateCodec.decode(encoded, profile.persisted, profile.persistedPresent))
+            {
+                copy(profile.persisted, profile.persistedPresent, profile.staged, profile.stagedPresent);
+            }
+            else
+            {
+                log.warn("Discarding corrupt Number Go Up state for profile {}", profileKey);
+                clear(profile.persisted, profile.persistedPresent);
+                migrateGlobalState(profile);
+            }
+        }
+        else
+        {
+            migrateGlobalState(profile);
+        }
+
+        replayLog(profile);
+        return profile;
+    }
+
+    // Whatever was staged after the last flush before the client stopped is in the log
+    private void replayLog(Profile profile)
+    {
+        int replayed = wal.replay(profile.key, (i, present, values) ->
+        {
+            long bit = 1L << i;
+            for (int f = 0; f < FIELD_COUNT; f++)
+            {
+                if ((present & (1 << f)) != 0)
+                {
+                    profile.staged[f][i] = values[f];
+                    profile.stagedPresent[f] |= bit;
+                }
+                else
+                {
+                    profile.stagedPresent[f] &= ~bit;
+                }
+
+                boolean matchesPersisted = (profile.stagedPresent[f] & bit) != 0
+                        ? (profile.persistedPresent[f] & bit) != 0 && profile.persisted[f][i] == values[f]
+                        : (profile.persistedPresent[f] & bit) == 0;
+                if (matchesPersisted)
+                {
+                    profile.dirty[f] &= ~bit;
+                }
+                else
+                {
+                    profile.dirty[f] |= bit;
+                }
+            }
+        });
+
+        if (profile.hasDirty())
+        {
+            log.info("Recovered {} logged Number Go Up state changes for profile {}", replayed, profile.key);
+            profile.dirtySince = System.currentTimeMillis();
+        }
+    }
+
+    // State used to be stored account-wide, first as one value and before that as per-skill keys.
+    // The first profile loaded without state of its own takes it over.
+    private void migrateGlobalState(Profile profile)
+    {
+        String encoded = configManager.getConfiguration(CONFIG_GROUP, STATE_KEY);
+        metrics.increment(PluginMetrics.Counter.CONFIG_READS);
+        if (encoded != null)
+        {
+            profile.legacyKeys.add(STATE_KEY);
+            if (StateCodec.decode(encoded, profile.staged, profile.stagedPresent))
+            {
+                Arrays.fill(profile.dirty, -1L);
+            }
+            else
+            {
+                log.warn("Discarding corrupt Number Go Up state");
+                clear(profile.staged, profile.stagedPresent);
+            }
+        }
+        else
+        {
+            migrateLegacyKeys(profile);
+        }
+
+        if (!profile.legacyKeys.isEmpty())
+        {
+            log.info("Moving account-wide Number Go Up state to profile {}", profile.key);
+            profile.dirtySince = System.currentTimeMillis();
+            flush(profile);
+        }
+    }
+
+    private void migrateLegacyKeys(Profile profile)
+    {
+        for (Field field : Field.values())
+        {
+            int f = field.ordinal();
+            for (Skill skill : SKILLS)
+            {
+                if (skill == Skill.OVERALL)
+                {
+                    continue;
+                }
+
+                String key = field.legacyKey(skill);
+                Integer value = configManager.getConfiguration(CONFIG_GROUP, key, Integer.class);
+                metrics.increment(PluginMetrics.Counter.CONFIG_READS);
+                if (value != null)
+                {
+                    profile.staged[f][skill.ordinal()] = value;
+                    profile.stagedPresent[f] |= 1L << skill.ordinal();
+                    profile.dirty[f] |= 1L << skill.ordinal();
+                    profile.legacyKeys.add(key);
+                }
+            }
+        }
+    }
+
+    // Copy the active profile's state into the table, clearing it when logged out
+    synchronized void restore(SkillStateTable state)
+    {
+        state.clearProgress();
+        if (active == null)
+        {
+            return;
+        }
+
+        long[][] staged = active.staged;
+        long[] stagedPresent = active.stagedPresent;
+        for (Skill skill : SKILLS)
+        {
+            if (skill == Skill.OVERALL)
+            {
+                continue;
+            }
+
+            long bit = 1L << skill.ordinal();
+            int i = skill.ordinal();
+            if ((stagedPresent[Field.SESSION_XP.ordinal()] & bit) != 0)
+            {
+                state.setSessionXp(skill, staged[Field.SESSION_XP.ordinal()][i]);
+            }
+            if ((stagedPresent[Field.LAST_MILESTONE.ordinal()] & bit) != 0)
+            {
+                state.setLastMilestone(skill, (int) staged[Field.LAST_MILESTONE.ordinal()][i]);
+            }
+            if ((stagedPresent[Field.RESET_START_XP.ordinal()] & bit) != 0)
+            {
+                state.setResetStart(skill, (int) staged[Field.RESET_START_XP.ordinal()][i]);
+            }
+        }
+    }
+
+    // Stage the table's current values into the active profile, marking whatever differs from the
+    // persisted state as dirty
+    synchronized void stage(SkillStateTable state)
+    {
+        if (active == null)
+        {
+            return;
+        }
+
+        for (Skill skill : SKILLS)
+        {
+            if (skill == Skill.OVERALL)
+            {
+                continue;
+            }
+
+            boolean changed = stage(active, Field.SESSION_XP, skill, true, state.getSessionXp(skill))
+                    | stage(active, Field.LAST_MILESTONE, skill, state.hasLastMilestone(skill), state.getLastMilestone(skill))
+                    | stage(active, Field.RESET_START_XP, skill, state.hasResetStart(skill), state.getResetStart(skill));
+            if (changed)
+            {
+                wal.append(active.key, skill.ordinal(), active.stagedPresent, active.staged);
+            }
+        }
+    }
+
+    // Returns whether the staged value changed
+    private static boolean stage(Profile profile, Field field, Skill skill, boolean present, long value)
+    {
+        int f = field.ordinal();
+        int i = skill.ordinal();
+        long bit = 1L << i;
+        boolean wasPresent = (profile.stagedPresent[f] & bit) != 0;
+        boolean changed = present ? !wasPresent || profile.staged[f][i] != value : wasPresent;
+
+        if (present)
+        {
+            profile.staged[f][i] = value;
+            profile.stagedPresent[f] |= bit;
+        }
+        else
+        {
+            profile.stagedPresent[f] &= ~bit;
+        }
+
+        boolean matchesPersisted = present
+                ? (profile.persistedPresent[f] & bit) != 0 && profile.persisted[f][i] == value
+                : (profile.persistedPresent[f] & bit) == 0;
+
+        if (matchesPersisted)
+        {
+            profile.dirty[f] &= ~bit;
+        }
+        else
+        {
+            if (!profile.hasDirty())
+            {
+                profile.dirtySince = System.currentTimeMillis();
+            }
+            profile.dirty[f] |= bit;
+        }
+        return changed;
+    }
+
+    // Encoded form of the active profile's staged state, as it would be written by the next flush
+    synchronized String snapshot()
+    {
+        return active == null ? null : StateCodec.encode(active.staged, active.stagedPresent);
+    }
+
+    // Swap the active profile's staged state for decoded values in a single step, written out by
+    // the next flush
+    synchronized void replace(long[][] values, long[] present)
+    {
+        if (active == null)
+        {
+            return;
+        }
+
+        copy(values, present, active.staged, active.stagedPresent);
+        Arrays.fill(active.dirty, -1L);
+        active.dirtySince = System.currentTimeMillis();
+    }
+
+    synchronized boolean hasDirty()
+    {
+        return active != null && active.hasDirty();
+    }
+
+    // Whether staged changes have waited long enough to be written
+    synchronized boolean isFlushDue(long now)
+    {
+        return hasDirty() && now - active.dirtySince >= FLUSH_INTERVAL_MS;
+    }
+
+    // Write the active profile's staged state, only the active profile is ever modified
+    synchronized void flush()
+    {
+        if (active != null)
+        {
+            flush(active);
+        }
+    }
+
+    // Encode a profile's staged state and write it as a single value on the client executor
+    private void flush(Profile profile)
+    {
+        if (!profile.hasDirty())
+        {
+            return;
+        }
+
+        String profileKey = profile.key;
+        String encoded = StateCodec.encode(profile.staged, profile.stagedPresent);
+        copy(profile.staged, profile.stagedPresent, profile.persisted, profile.persistedPresent);
+        Arrays.fill(profile.dirty, 0);
+
+        List<String> removedKeys = new ArrayList<>(profile.legacyKeys);
+        profile.legacyKeys.clear();
+        metrics.add(PluginMetrics.Counter.CONFIG_WRITES, 1 + removedKeys.size());
+
+        // The client executor is single threaded, so flushes are applied in the order they were made.
+        // The profile key is explicit since the active RS profile may have changed by the time this runs.
+        executor.execute(() ->
+        {
+            configManager.setConfiguration(CONFIG_GROUP, profileKey, STATE_KEY, encoded);
+            for (String key : removedKeys)
+            {
+                configManager.unsetConfiguration(CONFIG_GROUP, key);
+            }
+        });
+
+        // Queued after the config write, the log then restarts from the state just written
+        wal.checkpoint(profileKey, profile.stagedPresent, profile.staged);
+    }
+
+    // Staged and persisted session state of one RS profile
+    private static final class Profile
+    {
+        private final String key;
+
+        // Latest staged value per field and skill, with presence bits
+        private final long[][] staged = new long[FIELD_COUNT][SKILLS.length];
+        private final long[] stagedPresent = new long[FIELD_COUNT];
+
+        // What the ConfigManager currently holds, so unchanged state is never rewritten
+        private final long[][] persisted = new long[FIELD_COUNT][SKILLS.length];
+        private final long[] persistedPresent = new long[FIELD_COUNT];
+
+        // Values whose staged value differs from the persisted one
+        private final long[] dirty = new long[FIELD_COUNT];
+        private long dirtySince;
+
+        // Account-wide keys still to be removed after a migration
+        private final List<String> legacyKeys = new ArrayList<>();
+
+        Profile(String key)
+        {
+            this.key = key;
+        }
+
+        boolean hasDirty()
+        {
+            for (long mask : dirty)
+            {
+                if (mask != 0)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static void clear(long[][] values, long[] present)
+    {
+        for (int f = 0; f < values.length; f++)
+        {
+            Arrays.fill(values[f], 0);
+            present[f] = 0;
+        }
+    }
+
+    private static void copy(long[][] from, long[] fromPresent, long[][] to, long[] toPresent)
+    {
+        for (int f = 0; f < from.length; f++)
+        {
+            System.arraycopy(from[f], 0, to[f], 0, from[f].length);
+            toPresent[f] = fromPresent[f];
+        }
+    }
+}
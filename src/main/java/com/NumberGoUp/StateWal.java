@@ -0,0 +1,378 @@
+package com.NumberGoUp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.zip.CRC32;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+
+// Write-ahead log of staged session state between persister flushes, one file per RS profile.
+//
+// Every time a skill's staged row (session XP, last milestone and reset start) changes, the new
+// row is appended as a fixed-size record with a sequence number and a CRC. Records are buffered on
+// the client thread and written and forced to disk in one batch per game tick on the client
+// executor. A checkpoint, made whenever the state is flushed to the config, atomically replaces the
+// log with the full state as one record per skill, so the log never grows past a flush interval of
+// changes and holds the newest state even if the config write itself didn't make it to disk.
+// Rows are absolute values, so replaying a log over the config's state is always safe; replay
+// stops at the first torn or out of sequence record and cuts it off.
+@Slf4j
+@Singleton
+class StateWal
+{
+    static final File WAL_DIR = new File(new File(RuneLite.RUNELITE_DIR, "number-go-up"), "wal");
+
+    static final int MAGIC = 0x4E475557; // "NGUW"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    private static final int FIELD_COUNT = StatePersister.Field.values().length;
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    // seq, skill, presence bits, reserved, one value per field, CRC32 of the rest
+    static final int RECORD_SIZE = 8 + 1 + 1 + 2 + 8 * FIELD_COUNT + 4;
+
+    // Records buffered before a batch is handed to the executor regardless of the tick
+    private static final int MAX_PENDING_RECORDS = 256;
+
+    private static final String SUFFIX = ".wal";
+
+    interface RowConsumer
+    {
+        // present has bit f set for each field f with a value
+        void accept(int skill, int present, long[] values);
+    }
+
+    private final ScheduledExecutorService executor;
+    private final File root;
+
+    // Sequence number of the last record logged for activeKey, and for every other profile seen
+    private String activeKey;
+    private long activeSeq;
+    private final Map<String, Long> lastSeq = new HashMap<>();
+
+    // Records not yet handed to the executor, all for pendingKey
+    private String pendingKey;
+    private ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * MAX_PENDING_RECORDS);
+
+    // Batch being written by writeTask, swapped back in as the pending buffer once it is on disk
+    private String writingKey;
+    private ByteBuffer writing = ByteBuffer.allocate(RECORD_SIZE * MAX_PENDING_RECORDS);
+    private boolean writeInFlight;
+    private final Runnable writeTask = this::writeBatch;
+
+    private final CRC32 crc = new CRC32();
+
+    // Only warn about a failing disk once rather than every tick
+    private volatile boolean writeFailed;
+
+    @Inject
+    StateWal(ScheduledExecutorService executor)
+    {
+        this(executor, WAL_DIR);
+    }
+
+    StateWal(ScheduledExecutorService executor, File root)
+    {
+        this.executor = executor;
+        this.root = root;
+    }
+
+    File file(String profileKey)
+    {
+        return new File(root, StatePersister.fileName(profileKey) + SUFFIX);
+    }
+
+    // Feed every intact record of a profile's log to the consumer, oldest first, and cut off a torn
+    // tail so appends carry on from the last good record. Blocking, used while hydrating a profile.
+    synchronized int replay(String profileKey, RowConsumer consumer)
+    {
+        File file = file(profileKey);
+        activate(profileKey);
+        activeSeq = 0;
+        if (!file.exists())
+        {
+            return 0;
+        }
+
+        try
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION
+                    || buffer.getShort(6) != RECORD_SIZE)
+            {
+                log.warn("Discarding unreadable Number Go Up state log {}", file);
+                Files.delete(file.toPath());
+                return 0;
+            }
+
+            long seq = buffer.getLong(8);
+            long[] values = new long[FIELD_COUNT];
+            int replayed = 0;
+            int position = HEADER_SIZE;
+            for (; position + RECORD_SIZE <= buffer.limit(); position += RECORD_SIZE)
+            {
+                crc.reset();
+                crc.update(buffer.array(), position, RECORD_SIZE - 4);
+                int skill = buffer.get(position + 8);
+                if ((int) crc.getValue() != buffer.getInt(position + RECORD_SIZE - 4)
+                        || buffer.getLong(position) != seq + 1 || skill < 0 || skill >= SKILL_COUNT)
+                {
+                    break;
+                }
+
+                for (int f = 0; f < FIELD_COUNT; f++)
+                {
+                    values[f] = buffer.getLong(position + 12 + 8 * f);
+                }
+                consumer.accept(skill, buffer.get(position + 9), values);
+                seq++;
+                replayed++;
+            }
+
+            if (position != buffer.limit())
+            {
+                log.info("Cutting {} bytes of torn records off Number Go Up state log {}", buffer.limit() - position, file);
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE))
+                {
+                    channel.truncate(position);
+                    channel.force(true);
+                }
+            }
+            activeSeq = seq;
+            return replayed;
+        }
+        catch (IOException e)
+        {
+            log.warn("Unable to replay Number Go Up state log {}", file, e);
+            return 0;
+        }
+    }
+
+    // Log a skill's new staged row, written with the next batch
+    synchronized void append(String profileKey, int skill, long[] present, long[][] staged)
+    {
+        if (!profileKey.equals(pendingKey) || !pending.hasRemaining())
+        {
+            handOff(true);
+            pendingKey = profileKey;
+        }
+
+        activate(profileKey);
+        putRecord(pending, ++activeSeq, skill, present, staged);
+    }
+
+    // Hand the buffered records to the executor to be appended and forced to disk in one batch
+    synchronized void sync()
+    {
+        handOff(false);
+    }
+
+    // Swap the pending records out to writeTask. If the last batch is still being written they wait
+    // for the next tick, unless the pending buffer has to be emptied now.
+    private void handOff(boolean now)
+    {
+        if (pending.position() == 0)
+        {
+            return;
+        }
+
+        if (writeInFlight)
+        {
+            if (!now)
+            {
+                return;
+            }
+
+            // The disk has fallen behind, so these get a buffer of their own
+            String profileKey = pendingKey;
+            ByteBuffer overflow = ByteBuffer.allocate(pending.position());
+            pending.flip();
+            overflow.put(pending).flip();
+            pending.clear();
+            executor.execute(() -> write(profileKey, overflow));
+            return;
+        }
+
+        ByteBuffer batch = pending;
+        pending = writing;
+        writing = batch;
+        writing.flip();
+        writingKey = pendingKey;
+        writeInFlight = true;
+        executor.execute(writeTask);
+    }
+
+    // Runs on the executor. writing and writingKey are left alone while writeInFlight is set, and
+    // handing the task to the executor publishes them to it.
+    private void writeBatch()
+    {
+        write(writingKey, writing);
+        synchronized (this)
+        {
+            writing.clear();
+            writeInFlight = false;
+        }
+    }
+
+    // Replace a profile's log with its full flushed state, dropping everything logged before
+    synchronized void checkpoint(String profileKey, long[] present, long[][] staged)
+    {
+        // Buffered records are older than the state being checkpointed
+        if (profileKey.equals(pendingKey))
+        {
+            pending.clear();
+        }
+
+        activate(profileKey);
+        long base = activeSeq;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + RECORD_SIZE * (SKILL_COUNT - 1));
+        putHeader(buffer, base);
+        long seq = base;
+        for (int i = 0; i < SKILL_COUNT; i++)
+        {
+            if (i != Skill.OVERALL.ordinal())
+            {
+                putRecord(buffer, ++seq, i, present, staged);
+            }
+        }
+        activeSeq = seq;
+        buffer.flip();
+        executor.execute(() -> rewrite(profileKey, buffer));
+    }
+
+    // Make profileKey the profile activeSeq counts for, parking the previous profile's sequence
+    private void activate(String profileKey)
+    {
+        if (profileKey.equals(activeKey))
+        {
+            return;
+        }
+        if (activeKey != null)
+        {
+            lastSeq.put(activeKey, activeSeq);
+        }
+        Long seq = lastSeq.remove(profileKey);
+        activeKey = profileKey;
+        activeSeq = seq == null ? 0 : seq;
+    }
+
+    // Append a batch to a profile's log and force it to disk
+    void write(String profileKey, ByteBuffer batch)
+    {
+        Path path = file(profileKey).toPath();
+        try
+        {
+            if (!root.exists() && !root.mkdirs())
+            {
+                throw new IOException("Unable to create " + root);
+            }
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND))
+            {
+                if (channel.size() == 0)
+                {
+                    // First records since the log was created: the header's base is just before them
+                    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                    putHeader(header, batch.getLong(0) - 1);
+                    header.flip();
+                    writeFully(channel, header);
+                }
+                writeFully(channel, batch);
+                channel.force(false);
+            }
+            writeFailed = false;
+        }
+        catch (IOException e)
+        {
+            warnOnce(path, e);
+        }
+    }
+
+    // Atomically replace a profile's log with a checkpoint
+    void rewrite(String profileKey, ByteBuffer buffer)
+    {
+        Path path = file(profileKey).toPath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try
+        {
+            if (!root.exists() && !root.mkdirs())
+            {
+                throw new IOException("Unable to create " + root);
+            }
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+            {
+                writeFully(channel, buffer);
+                channel.force(true);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writeFailed = false;
+        }
+        catch (IOException e)
+        {
+            warnOnce(path, e);
+        }
+    }
+
+    private void warnOnce(Path path, IOException e)
+    {
+        if (!writeFailed)
+        {
+            writeFailed = true;
+            log.warn("Unable to write Number Go Up state log {}", path, e);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+    }
+
+    private static void putHeader(ByteBuffer buffer, long baseSeq)
+    {
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) RECORD_SIZE);
+        buffer.putLong(baseSeq);
+    }
+
+    private void putRecord(ByteBuffer buffer, long seq, int skill, long[] present, long[][] staged)
+    {
+        int start = buffer.position();
+        int bits = 0;
+        for (int f = 0; f < FIELD_COUNT; f++)
+        {
+            if ((present[f] & (1L << skill)) != 0)
+            {
+                bits |= 1 << f;
+            }
+        }
+
+        buffer.putLong(seq);
+        buffer.put((byte) skill);
+        buffer.put((byte) bits);
+        buffer.putShort((short) 0);
+        for (int f = 0; f < FIELD_COUNT; f++)
+        {
+            buffer.putLong(staged[f][skill]);
+        }
+
+        crc.reset();
+        crc.update(buffer.array(), start, RECORD_SIZE - 4);
+        buffer.putInt((int) crc.getValue());
+    }
+}
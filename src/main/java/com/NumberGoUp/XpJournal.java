@@ -0,0 +1,553 @@
+package com.NumberGoUp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.api.Skill;
+import net.runelite.client.RuneLite;
+
+// Append-only history of real XP gains, one directory of memory-mapped segments per RS profile.
+//
+// Records are stamped with a journal tick, which counts game ticks while the journal is open and
+// carries on from the last recorded tick when it is reopened, so ticks only ever increase. Each
+// open starts a new session. The next segment is created on the client executor once the active
+// one is mostly full, so rolling over is just a swap on the client thread, and once more than
+// RAW_SEGMENTS_KEPT are closed the oldest are compacted into per-minute aggregates on the executor.
+@Slf4j
+@Singleton
+class XpJournal
+{
+    static final File JOURNAL_DIR = new File(new File(RuneLite.RUNELITE_DIR, "number-go-up"), "journal");
+
+    static final int RECORDS_PER_SEGMENT = 32_768;
+    static final int RAW_SEGMENTS_KEPT = 4;
+
+    // Compacted records aggregate a skill's gains over this many ticks (one minute)
+    static final int COMPACT_BUCKET_TICKS = 100;
+
+    private static final String RAW_SUFFIX = ".ngj";
+    private static final String COMPACTED_SUFFIX = ".ngc";
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    // Per-session totals read back from the journal
+    static final class SessionSummary
+    {
+        final int session;
+        final long[] xp = new long[SKILL_COUNT];
+        long firstTick = Long.MAX_VALUE;
+        long lastTick = Long.MIN_VALUE;
+        long firstTimeMs = Long.MAX_VALUE;
+        long lastTimeMs = Long.MIN_VALUE;
+        long totalXp;
+
+        SessionSummary(int session)
+        {
+            this.session = session;
+        }
+
+        boolean isEmpty()
+        {
+            return firstTick == Long.MAX_VALUE;
+        }
+    }
+
+    private final ScheduledExecutorService executor;
+    private final File root;
+
+    // Segments of the open profile, oldest first. The last one is the active segment.
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private File directory;
+    private boolean compacting;
+
+    // Segment to roll over to, created on the executor ahead of the active one filling up
+    private JournalSegment spare;
+    private boolean preparingSpare;
+
+    private long tick;
+    private int session;
+
+    @Inject
+    XpJournal(ScheduledExecutorService executor)
+    {
+        this(executor, JOURNAL_DIR);
+    }
+
+    XpJournal(ScheduledExecutorService executor, File root)
+    {
+        this.executor = executor;
+        this.root = root;
+    }
+
+    // A profile's segments read from disk, ready to be swapped in by open
+    static final class Loaded
+    {
+        private final File directory;
+        private final List<JournalSegment> segments;
+        private final long tick;
+        private final int session;
+
+        // Whether the last segment is a new file made by load rather than an existing one
+        private final boolean created;
+
+        private Loaded(File directory, List<JournalSegment> segments, long tick, int session, boolean created)
+        {
+            this.directory = directory;
+            this.segments = segments;
+            this.tick = tick;
+            this.session = session;
+            this.created = created;
+        }
+    }
+
+    // Map an RS profile's segments and prepare the one to append to, null if the journal can't be
+    // used. This scans every segment, so it runs on the client executor ahead of open.
+    Loaded load(String profileKey)
+    {
+        File dir = new File(root, StatePersister.fileName(profileKey));
+        if (!dir.exists() && !dir.mkdirs())
+        {
+            log.warn("Unable to create XP journal directory {}", dir);
+            return null;
+        }
+
+        File[] files = dir.listFiles();
+        if (files == null)
+        {
+            log.warn("Unable to list XP journal directory {}", dir);
+            return null;
+        }
+
+        try
+        {
+            List<JournalSegment> segments = new ArrayList<>();
+            Arrays.sort(files);
+            for (File file : files)
+            {
+                String name = file.getName();
+                if (name.endsWith(".tmp"))
+                {
+                    // Left over from a compaction that didn't finish
+                    Files.deleteIfExists(file.toPath());
+                    continue;
+                }
+                if (!name.endsWith(RAW_SUFFIX) && !name.endsWith(COMPACTED_SUFFIX))
+                {
+                    continue;
+                }
+                if (name.endsWith(RAW_SUFFIX) && new File(dir, baseName(file) + COMPACTED_SUFFIX).exists())
+                {
+                    // Compacted before, but the raw segment couldn't be removed at the time
+                    Files.deleteIfExists(file.toPath());
+                    continue;
+                }
+
+                try
+                {
+                    segments.add(JournalSegment.open(file, false));
+                }
+                catch (IOException e)
+                {
+                    log.warn("Skipping unreadable XP journal segment {}", file, e);
+                }
+            }
+
+            long tick = 0;
+            int session = 0;
+            for (JournalSegment segment : segments)
+            {
+                if (!segment.isEmpty())
+                {
+                    tick = Math.max(tick, segment.getLastTick() + 1);
+                    session = Math.max(session, segment.getLastSession() + 1);
+                }
+            }
+
+            // Keep appending to the newest raw segment if it has room
+            JournalSegment last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            boolean created = last == null || last.isCompacted() || last.isFull();
+            if (created)
+            {
+                segments.add(createSegment(dir, tick));
+            }
+            else
+            {
+                segments.set(segments.size() - 1, JournalSegment.open(last.getFile(), true));
+            }
+            return new Loaded(dir, segments, tick, session, created);
+        }
+        catch (IOException e)
+        {
+            log.warn("Unable to open XP journal in {}", dir, e);
+            return null;
+        }
+    }
+
+    // Switch to a loaded journal, closing the current one first. Null just closes it.
+    synchronized void open(Loaded loaded)
+    {
+        if (loaded != null && loaded.directory.equals(directory))
+        {
+            // Already open, the loaded copy may have missed the latest appends. Drop its mappings,
+            // and the segment it created since nothing will ever be written to it.
+            if (loaded.created)
+            {
+                discard(loaded.segments.get(loaded.segments.size() - 1));
+            }
+            loaded.segments.clear();
+            return;
+        }
+
+        close();
+        if (loaded == null)
+        {
+            return;
+        }
+
+        segments.addAll(loaded.segments);
+        directory = loaded.directory;
+        tick = loaded.tick;
+        session = loaded.session;
+        compactOldSegments();
+    }
+
+    synchronized void close()
+    {
+        JournalSegment active = active();
+        if (active != null)
+        {
+            executor.execute(active::force);
+        }
+        if (spare != null)
+        {
+            discard(spare);
+            spare = null;
+        }
+        preparingSpare = false;
+        segments.clear();
+        directory = null;
+        tick = 0;
+        session = 0;
+    }
+
+    synchronized boolean isOpen()
+    {
+        return directory != null;
+    }
+
+    synchronized void tick()
+    {
+        if (directory != null)
+        {
+            tick++;
+        }
+    }
+
+    synchronized long getTick()
+    {
+        return tick;
+    }
+
+    synchronized int getSession()
+    {
+        return session;
+    }
+
+    // Record a real XP gain and the display level it resulted in
+    synchronized void append(Skill skill, int delta, int displayLevel)
+    {
+        JournalSegment active = active();
+        if (active == null)
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        if (active.append(tick, now, session, skill.ordinal(), delta, displayLevel))
+        {
+            if (spare == null && active.getCount() * 4L >= active.getCapacity() * 3L)
+            {
+                prepareSpare();
+            }
+            return;
+        }
+
+        if (spare == null)
+        {
+            // Only if the executor has fallen a quarter of a segment behind. Gains are dropped
+            // until it catches up rather than creating the segment on the client thread.
+            if (!preparingSpare)
+            {
+                log.warn("XP journal segment {} is full before the next one is ready", active.getFile());
+            }
+            prepareSpare();
+            return;
+        }
+
+        segments.add(spare);
+        spare = null;
+        executor.execute(active::force);
+        compactOldSegments();
+        active().append(tick, now, session, skill.ordinal(), delta, displayLevel);
+    }
+
+    // XP gained in a skill over journal ticks [fromTick, toTick)
+    synchronized long xpGained(Skill skill, long fromTick, long toTick)
+    {
+        long sum = 0;
+        for (JournalSegment segment : segments)
+        {
+            sum += segment.sumDelta(skill.ordinal(), fromTick, toTick);
+        }
+        return sum;
+    }
+
+    // Totals for one session, the current one is getSession()
+    synchronized SessionSummary summarize(int session)
+    {
+        SessionSummary summary = new SessionSummary(session);
+        for (JournalSegment segment : segments)
+        {
+            if (!segment.mayContainSession(session))
+            {
+                continue;
+            }
+            segment.forEach((tick, timeMs, recordSession, skill, delta, level) ->
+            {
+                if (recordSession != session)
+                {
+                    return;
+                }
+                summary.xp[skill] += delta;
+                summary.totalXp += delta;
+                summary.firstTick = Math.min(summary.firstTick, tick);
+                summary.lastTick = Math.max(summary.lastTick, tick);
+                summary.firstTimeMs = Math.min(summary.firstTimeMs, timeMs);
+                summary.lastTimeMs = Math.max(summary.lastTimeMs, timeMs);
+            });
+        }
+        return summary;
+    }
+
+    private JournalSegment active()
+    {
+        return segments.isEmpty() ? null : segments.get(segments.size() - 1);
+    }
+
+    // Create the next raw segment on the executor
+    private void prepareSpare()
+    {
+        if (preparingSpare)
+        {
+            return;
+        }
+
+        preparingSpare = true;
+        File dir = directory;
+        long startTick = tick;
+        executor.execute(() ->
+        {
+            JournalSegment segment = null;
+            try
+            {
+                segment = createSegment(dir, startTick);
+            }
+            catch (IOException e)
+            {
+                log.warn("Unable to create XP journal segment in {}", dir, e);
+            }
+
+            synchronized (this)
+            {
+                preparingSpare = false;
+                if (segment == null)
+                {
+                    return;
+                }
+                if (spare == null && dir.equals(directory))
+                {
+                    spare = segment;
+                }
+                else
+                {
+                    // Closed or switched profile in the meantime
+                    discard(segment);
+                }
+            }
+        });
+    }
+
+    // Start a new raw segment named after the tick it starts at and a zero padded sequence number
+    // for segments started in the same tick, so names sort oldest first
+    private static JournalSegment createSegment(File directory, long tick) throws IOException
+    {
+        File file;
+        int sequence = 0;
+        do
+        {
+            String base = String.format("%016x-%08d", tick, sequence++);
+            file = new File(directory, base + RAW_SUFFIX);
+            if (new File(directory, base + COMPACTED_SUFFIX).exists())
+            {
+                file = null;
+            }
+        }
+        while (file == null || file.exists());
+        return JournalSegment.create(file, RECORDS_PER_SEGMENT, false);
+    }
+
+    // Let go of a segment that will never be used, deleting its file if nothing was written to it.
+    // The mapping itself is released once the segment is collected.
+    private static void discard(JournalSegment segment)
+    {
+        if (!segment.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            Files.deleteIfExists(segment.getFile().toPath());
+        }
+        catch (IOException e)
+        {
+            // Still mapped on some platforms, picked up as an empty segment by the next load
+            log.debug("Unable to delete unused XP journal segment {}", segment.getFile(), e);
+        }
+    }
+
+    // Compact closed raw segments beyond the newest RAW_SEGMENTS_KEPT, off the client thread
+    private void compactOldSegments()
+    {
+        if (compacting)
+        {
+            return;
+        }
+
+        List<JournalSegment> closed = new ArrayList<>();
+        int raw = 0;
+        for (int i = segments.size() - 2; i >= 0; i--)
+        {
+            JournalSegment segment = segments.get(i);
+            if (!segment.isCompacted() && ++raw > RAW_SEGMENTS_KEPT)
+            {
+                closed.add(segment);
+            }
+        }
+        if (closed.isEmpty())
+        {
+            return;
+        }
+
+        compacting = true;
+        File dir = directory;
+        executor.execute(() ->
+        {
+            for (JournalSegment segment : closed)
+            {
+                try
+                {
+                    replace(dir, segment, compact(dir, segment));
+                }
+                catch (IOException e)
+                {
+                    log.warn("Unable to compact XP journal segment {}", segment.getFile(), e);
+                }
+            }
+            synchronized (this)
+            {
+                compacting = false;
+            }
+        });
+    }
+
+    // Write a segment's records as per-session, per-skill, per-bucket aggregates
+    private static JournalSegment compact(File dir, JournalSegment segment) throws IOException
+    {
+        File tmp = new File(dir, baseName(segment.getFile()) + COMPACTED_SUFFIX + ".tmp");
+        JournalSegment out = JournalSegment.create(tmp, Math.max(1, segment.getCount()), true);
+
+        // Records arrive in tick order, so all skills share the current bucket. When the bucket or
+        // session moves on, every skill's aggregate is written out, keeping the output in tick order.
+        long[] bucketTime = new long[SKILL_COUNT];
+        long[] bucketDelta = new long[SKILL_COUNT];
+        int[] bucketLevel = new int[SKILL_COUNT];
+        boolean[] present = new boolean[SKILL_COUNT];
+        long[] current = {Long.MIN_VALUE, -1};
+
+        segment.forEach((tick, timeMs, session, skill, delta, level) ->
+        {
+            long bucket = tick - Math.floorMod(tick, COMPACT_BUCKET_TICKS);
+            if (bucket != current[0] || session != current[1])
+            {
+                emitBuckets(out, current[0], (int) current[1], bucketTime, bucketDelta, bucketLevel, present);
+                current[0] = bucket;
+                current[1] = session;
+            }
+            if (!present[skill])
+            {
+                present[skill] = true;
+                bucketTime[skill] = timeMs;
+                bucketDelta[skill] = 0;
+            }
+            bucketDelta[skill] += delta;
+            bucketLevel[skill] = level;
+        });
+        emitBuckets(out, current[0], (int) current[1], bucketTime, bucketDelta, bucketLevel, present);
+
+        out.force();
+        File target = new File(dir, baseName(segment.getFile()) + COMPACTED_SUFFIX);
+        Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return JournalSegment.open(target, false);
+    }
+
+    private static void emitBuckets(JournalSegment out, long bucket, int session,
+                                    long[] time, long[] delta, int[] level, boolean[] present)
+    {
+        for (int skill = 0; skill < SKILL_COUNT; skill++)
+        {
+            if (present[skill])
+            {
+                out.append(bucket, time[skill], session, skill, (int) Math.min(Integer.MAX_VALUE, delta[skill]), level[skill]);
+                present[skill] = false;
+            }
+        }
+    }
+
+    private synchronized void replace(File dir, JournalSegment raw, JournalSegment compacted)
+    {
+        if (!dir.equals(directory))
+        {
+            // Profile switched while compacting, the next open picks the compacted file up
+            return;
+        }
+
+        int index = segments.indexOf(raw);
+        if (index >= 0)
+        {
+            segments.set(index, compacted);
+        }
+
+        try
+        {
+            Files.deleteIfExists(raw.getFile().toPath());
+        }
+        catch (IOException e)
+        {
+            // Still mapped on some platforms, removed when the journal is next opened
+            log.debug("Unable to delete compacted XP journal segment {}", raw.getFile(), e);
+        }
+    }
+
+    private static String baseName(File file)
+    {
+        String name = file.getName();
+        return name.substring(0, name.lastIndexOf('.'));
+    }
+}
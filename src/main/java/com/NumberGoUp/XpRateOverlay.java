@@ -0,0 +1,54 @@
+package com.NumberGoUp;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import javax.inject.Inject;
+import net.runelite.api.Skill;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+// Display XP per hour for every skill trained this session, over the configured window
+class XpRateOverlay extends OverlayPanel
+{
+    private final XpRateTracker rates;
+    private final NumberGoUpConfig config;
+
+    @Inject
+    private XpRateOverlay(NumberGoUpPlugin plugin, XpRateTracker rates, NumberGoUpConfig config)
+    {
+        super(plugin);
+        this.rates = rates;
+        this.config = config;
+        setPosition(OverlayPosition.TOP_LEFT);
+    }
+
+    @Override
+    public Dimension render(Graphics2D graphics)
+    {
+        long active = rates.getActiveSkills();
+        if (active == 0)
+        {
+            return null;
+        }
+
+        NumberGoUpConfig.RateWindow window = config.xpRateWindow();
+        panelComponent.getChildren().add(TitleComponent.builder()
+                .text("XP/h (" + window + ")")
+                .build());
+
+        for (Skill skill : Skill.values())
+        {
+            if ((active & (1L << skill.ordinal())) != 0)
+            {
+                panelComponent.getChildren().add(LineComponent.builder()
+                        .left(skill.getName())
+                        .right(XpRateTracker.format(rates.getRate(skill, window)))
+                        .build());
+            }
+        }
+
+        return super.render(graphics);
+    }
+}
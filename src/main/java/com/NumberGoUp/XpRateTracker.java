@@ -0,0 +1,146 @@
+package com.NumberGoUp;
+
+import java.util.Arrays;
+import javax.inject.Singleton;
+import net.runelite.api.Skill;
+
+// Per-skill display XP rates over sliding windows of game ticks.
+// Gains are summed into a ring of BUCKET_TICKS-tick buckets per skill, with a running total kept
+// for each window. Buckets are only expired lazily when a skill is recorded or read, so both are
+// O(1) amortized and history is never rescanned. Only used from the client thread.
+@Singleton
+class XpRateTracker
+{
+    static final int TICKS_PER_HOUR = 6000;
+    static final int BUCKET_TICKS = 10;
+
+    private static final int BUCKETS = TICKS_PER_HOUR / BUCKET_TICKS;
+    private static final int FIVE_MINUTE_BUCKETS = BUCKETS / 12;
+    private static final int SKILL_COUNT = Skill.values().length;
+
+    private final long[][] buckets = new long[SKILL_COUNT][BUCKETS];
+
+    // Absolute number of each skill's newest bucket
+    private final long[] newestBucket = new long[SKILL_COUNT];
+
+    private final long[] fiveMinuteXp = new long[SKILL_COUNT];
+    private final long[] hourXp = new long[SKILL_COUNT];
+    private final long[] sessionXp = new long[SKILL_COUNT];
+
+    // Skills with any gain this session
+    private long activeSkills;
+
+    private long tick;
+    private long sessionStartTick;
+
+    void tick()
+    {
+        tick++;
+    }
+
+    // Start a new session, dropping all rates
+    void reset()
+    {
+        for (long[] ring : buckets)
+        {
+            Arrays.fill(ring, 0);
+        }
+        Arrays.fill(newestBucket, tick / BUCKET_TICKS);
+        Arrays.fill(fiveMinuteXp, 0);
+        Arrays.fill(hourXp, 0);
+        Arrays.fill(sessionXp, 0);
+        activeSkills = 0;
+        sessionStartTick = tick;
+    }
+
+    void record(Skill skill, long displayXp)
+    {
+        int i = skill.ordinal();
+        advance(i);
+        buckets[i][(int) (newestBucket[i] % BUCKETS)] += displayXp;
+        fiveMinuteXp[i] += displayXp;
+        hourXp[i] += displayXp;
+        sessionXp[i] += displayXp;
+        activeSkills |= 1L << i;
+    }
+
+    long getActiveSkills()
+    {
+        return activeSkills;
+    }
+
+    // Display XP per hour over the given window, scaled down to the session's length while
+    // the session is shorter than the window
+    double getRate(Skill skill, NumberGoUpConfig.RateWindow window)
+    {
+        int i = skill.ordinal();
+        advance(i);
+
+        long elapsed = Math.max(1, tick - sessionStartTick);
+        switch (window)
+        {
+            case FIVE_MINUTES:
+                return perHour(fiveMinuteXp[i], Math.min(elapsed, span(FIVE_MINUTE_BUCKETS)));
+            case ONE_HOUR:
+                return perHour(hourXp[i], Math.min(elapsed, span(BUCKETS)));
+            default:
+                return perHour(sessionXp[i], elapsed);
+        }
+    }
+
+    // Short form of a rate, e.g. 950/h, 12.3k/h, 1.05m/h
+    static String format(double rate)
+    {
+        if (rate >= 1_000_000)
+        {
+            return String.format("%.2fm/h", rate / 1_000_000);
+        }
+        if (rate >= 1_000)
+        {
+            return String.format("%.1fk/h", rate / 1_000);
+        }
+        return String.format("%.0f/h", rate);
+    }
+
+    // Ticks covered by the newest n buckets, the newest of which is only partly filled
+    private long span(int n)
+    {
+        return (n - 1) * BUCKET_TICKS + tick % BUCKET_TICKS + 1;
+    }
+
+    private static double perHour(long xp, long ticks)
+    {
+        return xp * (double) TICKS_PER_HOUR / ticks;
+    }
+
+    // Move a skill's ring up to the current bucket, expiring what falls out of each window
+    private void advance(int i)
+    {
+        long target = tick / BUCKET_TICKS;
+        long newest = newestBucket[i];
+        if (newest == target)
+        {
+            return;
+        }
+
+        long[] ring = buckets[i];
+        if (target - newest >= BUCKETS)
+        {
+            Arrays.fill(ring, 0);
+            fiveMinuteXp[i] = 0;
+            hourXp[i] = 0;
+            newestBucket[i] = target;
+            return;
+        }
+
+        while (newest < target)
+        {
+            newest++;
+            fiveMinuteXp[i] -= ring[(int) Math.floorMod(newest - FIVE_MINUTE_BUCKETS, (long) BUCKETS)];
+            int slot = (int) (newest % BUCKETS);
+            hourXp[i] -= ring[slot];
+            ring[slot] = 0;
+        }
+        newestBucket[i] = newest;
+    }
+}
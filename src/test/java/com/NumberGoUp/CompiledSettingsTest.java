@@ -0,0 +1,58 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import net.runelite.api.Skill;
+import org.junit.Test;
+
+public class CompiledSettingsTest
+{
+    private final InMemoryConfig config = new InMemoryConfig();
+
+    @Test
+    public void multipliesPastTheIntRange()
+    {
+        CompiledSettings settings = withModifier(15.0);
+        assertEquals(45_000_000_000L, settings.applyMultiplier(Skill.MINING, 3_000_000_000L));
+        assertEquals(-45_000L, settings.applyMultiplier(Skill.MINING, -3_000L));
+    }
+
+    @Test
+    public void saturatesInsteadOfOverflowing()
+    {
+        CompiledSettings settings = withModifier(15.0);
+
+        // The largest session XP whose fixed-point product still fits is multiplied exactly
+        long largest = Long.MAX_VALUE / (15 * CompiledSettings.MULTIPLIER_SCALE);
+        assertEquals(largest * 15, settings.applyMultiplier(Skill.MINING, largest));
+        assertEquals(Long.MAX_VALUE, settings.applyMultiplier(Skill.MINING, largest + 1));
+        assertEquals(Long.MAX_VALUE, settings.applyMultiplier(Skill.MINING, Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE, settings.applyMultiplier(Skill.MINING, Long.MIN_VALUE / 2));
+    }
+
+    @Test
+    public void compilesMultipliersToFixedPoint()
+    {
+        assertEquals(4, withModifier(1.5).applyMultiplier(Skill.MINING, 3));
+        assertEquals(1001, withModifier(1.0005).applyMultiplier(Skill.MINING, 1000));
+
+        // Never below 1x
+        assertEquals(1000, withModifier(0.5).applyMultiplier(Skill.MINING, 1000));
+    }
+
+    @Test
+    public void perSkillOverrideReplacesTheGlobalModifier()
+    {
+        config.set("overrideAttack", true);
+        config.set("attackMultiplier", 15.0);
+        CompiledSettings settings = withModifier(2.0);
+
+        assertEquals(15_000, settings.applyMultiplier(Skill.ATTACK, 1000));
+        assertEquals(2_000, settings.applyMultiplier(Skill.STRENGTH, 1000));
+    }
+
+    private CompiledSettings withModifier(double modifier)
+    {
+        config.set("xpModifier", modifier);
+        return CompiledSettings.compile(config.config());
+    }
+}
@@ -0,0 +1,41 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class ConfigReadCounterTest
+{
+    private final InMemoryConfig config = new InMemoryConfig();
+    private final PluginMetrics metrics = new PluginMetrics();
+    private final NumberGoUpConfig counted = ConfigReadCounter.wrap(config.config(), metrics);
+
+    @Test
+    public void countsEveryItemRead()
+    {
+        config.set("xpRateWindow", NumberGoUpConfig.RateWindow.FIVE_MINUTES);
+        assertEquals(NumberGoUpConfig.RateWindow.FIVE_MINUTES, counted.xpRateWindow());
+        counted.xpRateWindow();
+        counted.resetMode();
+        assertEquals(3, metrics.get(PluginMetrics.Counter.CONFIG_READS));
+    }
+
+    @Test
+    public void countsTheReadsOfACompile()
+    {
+        config.set("resetMode", NumberGoUpConfig.ResetMode.PER_SKILL_THRESHOLD);
+        CompiledSettings.compile(counted);
+        long reads = metrics.get(PluginMetrics.Counter.CONFIG_READS);
+
+        // Overriding a skill's multiplier reads its value as well
+        config.set("overrideMining", true);
+        CompiledSettings.compile(counted);
+        assertEquals(reads + 1, metrics.get(PluginMetrics.Counter.CONFIG_READS) - reads);
+    }
+
+    @Test
+    public void skipsObjectMethods()
+    {
+        counted.toString();
+        assertEquals(0, metrics.get(PluginMetrics.Counter.CONFIG_READS));
+    }
+}
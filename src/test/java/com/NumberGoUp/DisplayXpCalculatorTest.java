@@ -0,0 +1,138 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+import org.junit.Test;
+
+public class DisplayXpCalculatorTest
+{
+    private static final int LEVEL_99_XP = 13_034_431;
+
+    private final InMemoryConfig config = new InMemoryConfig();
+    private final SkillStateTable state = new SkillStateTable();
+    private final DisplayXpCalculator calculator = new DisplayXpCalculator();
+
+    private final int[] levels = new int[SkillStateTable.SKILL_COUNT];
+    private final int[] xp = new int[SkillStateTable.SKILL_COUNT];
+    private final int[] boosts = new int[SkillStateTable.SKILL_COUNT];
+
+    @Test
+    public void allSkillsShowsLevelOneWithNoSessionXp()
+    {
+        CompiledSettings settings = settings(NumberGoUpConfig.ResetMode.ALL_SKILLS);
+        state.setReal(Skill.MINING, LEVEL_99_XP, 99);
+
+        assertTrue(calculator.compute(Skill.MINING, state, settings, levels, xp, boosts));
+        assertDisplayed(Skill.MINING, 1, 0, 1);
+    }
+
+    @Test
+    public void hitpointsStartsAtLevelTen()
+    {
+        CompiledSettings settings = settings(NumberGoUpConfig.ResetMode.ALL_SKILLS);
+
+        assertTrue(calculator.compute(Skill.HITPOINTS, state, settings, levels, xp, boosts));
+        assertDisplayed(Skill.HITPOINTS, 10, 1154, 10);
+
+        state.setSessionXp(Skill.HITPOINTS, 1000);
+        calculator.compute(Skill.HITPOINTS, state, settings, levels, xp, boosts);
+        assertDisplayed(Skill.HITPOINTS, Experience.getLevelForXp(2154), 2154, Experience.getLevelForXp(2154));
+    }
+
+    @Test
+    public void appliesTheMultiplierToSessionXp()
+    {
+        config.set("xpModifier", 1.5);
+        CompiledSettings settings = settings(NumberGoUpConfig.ResetMode.ALL_SKILLS);
+        state.setSessionXp(Skill.COOKING, 1000);
+
+        calculator.compute(Skill.COOKING, state, settings, levels, xp, boosts);
+        assertEquals(1500, xp[Skill.COOKING.ordinal()]);
+    }
+
+    @Test
+    public void clampsDisplayXpAtTheCap()
+    {
+        config.set("xpModifier", 15.0);
+        CompiledSettings settings = settings(NumberGoUpConfig.ResetMode.ALL_SKILLS);
+        state.setSessionXp(Skill.COOKING, 150_000_000L);
+        state.setSessionXp(Skill.HITPOINTS, Long.MAX_VALUE);
+
+        calculator.compute(Skill.COOKING, state, settings, levels, xp, boosts);
+        assertDisplayed(Skill.COOKING, 99, DisplayXpCalculator.MAX_XP, 99);
+
+        // Saturated session XP must not wrap when the Hitpoints offset is added
+        calculator.compute(Skill.HITPOINTS, state, settings, levels, xp, boosts);
+        assertDisplayed(Skill.HITPOINTS, 99, DisplayXpCalculator.MAX_XP, 99);
+    }
+
+    @Test
+    public void virtualLevelsGoPast99()
+    {
+        config.set("virtualLevels", true);
+        CompiledSettings settings = settings(NumberGoUpConfig.ResetMode.ALL_SKILLS);
+        state.setSessionXp(Skill.COOKING, DisplayXpCalculator.MAX_XP);
+
+        calculator.compute(Skill.COOKING, state, settings, levels, xp, boosts);
+        assertDisplayed(Skill.COOKING, Experience.MAX_VIRT_LEVEL, DisplayXpCalculator.MAX_XP, Experience.MAX_VIRT_LEVEL);
+    }
+
+    @Test
+    public void realValuesStopAt99UnlessVirtual()
+    {
+        state.setReal(Skill.FISHING, DisplayXpCalculator.MAX_XP, 99);
+        state.setReal(Skill.COOKING, DisplayXpCalculator.MAX_XP, 90);
+
+        CompiledSettings settings = settings(NumberGoUpConfig.ResetMode.NONE);
+        calculator.compute(Skill.FISHING, state, settings, levels, xp, boosts);
+        assertDisplayed(Skill.FISHING, 99, DisplayXpCalculator.MAX_XP, 99);
+
+        // An undrained 99 follows the virtual level, a drained one keeps its boosted level
+        config.set("virtualLevels", true);
+        settings = settings(NumberGoUpConfig.ResetMode.NONE);
+        calculator.compute(Skill.FISHING, state, settings, levels, xp, boosts);
+        assertDisplayed(Skill.FISHING, Experience.MAX_VIRT_LEVEL, DisplayXpCalculator.MAX_XP, Experience.MAX_VIRT_LEVEL);
+        calculator.compute(Skill.COOKING, state, settings, levels, xp, boosts);
+        assertDisplayed(Skill.COOKING, Experience.MAX_VIRT_LEVEL, DisplayXpCalculator.MAX_XP, 90);
+    }
+
+    @Test
+    public void capsRealBoosts()
+    {
+        state.setReal(Skill.STRENGTH, LEVEL_99_XP, 118);
+        calculator.compute(Skill.STRENGTH, state, settings(NumberGoUpConfig.ResetMode.NONE), levels, xp, boosts);
+        assertDisplayed(Skill.STRENGTH, 99, LEVEL_99_XP, DisplayXpCalculator.MAX_BOOST);
+    }
+
+    @Test
+    public void computeAllSkipsUnreportedRealSkillsAndOverall()
+    {
+        CompiledSettings settings = settings(NumberGoUpConfig.ResetMode.COMBAT_ONLY);
+        state.setReal(Skill.MINING, 1000, 9);
+
+        long written = calculator.computeAll(state, settings, levels, xp, boosts);
+        assertTrue((written & (1L << Skill.ATTACK.ordinal())) != 0);
+        assertTrue((written & (1L << Skill.MINING.ordinal())) != 0);
+        assertFalse((written & (1L << Skill.WOODCUTTING.ordinal())) != 0);
+        assertFalse((written & (1L << Skill.OVERALL.ordinal())) != 0);
+        assertFalse(calculator.compute(Skill.OVERALL, state, settings, levels, xp, boosts));
+        assertDisplayed(Skill.MINING, Experience.getLevelForXp(1000), 1000, 9);
+    }
+
+    private CompiledSettings settings(NumberGoUpConfig.ResetMode mode)
+    {
+        config.set("resetMode", mode);
+        return CompiledSettings.compile(config.config());
+    }
+
+    private void assertDisplayed(Skill skill, int level, int displayXp, int boost)
+    {
+        int i = skill.ordinal();
+        assertEquals(level, levels[i]);
+        assertEquals(displayXp, xp[i]);
+        assertEquals(boost, boosts[i]);
+    }
+}
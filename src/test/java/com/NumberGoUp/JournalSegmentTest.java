@@ -0,0 +1,110 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JournalSegmentTest
+{
+    private static final int RECORDS = 500;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void sumsRangesFromTheSparseIndex() throws IOException
+    {
+        // Ten records per tick, so runs of equal ticks straddle index block boundaries
+        JournalSegment segment = JournalSegment.create(new File(folder.newFolder(), "segment.ngj"), 1000, false);
+        for (int i = 0; i < RECORDS; i++)
+        {
+            segment.append(i / 10, i, 0, i % 3, i + 1, 1);
+        }
+
+        for (long from = -1; from <= RECORDS / 10 + 1; from++)
+        {
+            for (long to = from; to <= RECORDS / 10 + 2; to++)
+            {
+                for (int skill = 0; skill < 3; skill++)
+                {
+                    assertEquals("skill " + skill + " over [" + from + ", " + to + ")",
+                            expectedSum(skill, from, to), segment.sumDelta(skill, from, to));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void reopensWithTheSameRecordsAndIndex() throws IOException
+    {
+        File file = new File(folder.newFolder(), "segment.ngj");
+        JournalSegment segment = JournalSegment.create(file, 1000, false);
+        for (int i = 0; i < RECORDS; i++)
+        {
+            segment.append(i / 10, i, 3, i % 3, i + 1, 1);
+        }
+        segment.force();
+
+        JournalSegment reopened = JournalSegment.open(file, false);
+        assertEquals(RECORDS, reopened.getCount());
+        assertEquals(0, reopened.getFirstTick());
+        assertEquals((RECORDS - 1) / 10, reopened.getLastTick());
+        assertEquals(3, reopened.getLastSession());
+        assertTrue(reopened.mayContainSession(3));
+        assertFalse(reopened.mayContainSession(4));
+        assertEquals(expectedSum(1, 7, 33), reopened.sumDelta(1, 7, 33));
+
+        long[] visited = new long[1];
+        reopened.forEach((tick, timeMs, session, skill, delta, level) -> visited[0] += delta);
+        assertEquals((long) RECORDS * (RECORDS + 1) / 2, visited[0]);
+    }
+
+    @Test
+    public void refusesRecordsOnceFull() throws IOException
+    {
+        JournalSegment segment = JournalSegment.create(new File(folder.newFolder(), "segment.ngj"), 2, false);
+        assertTrue(segment.append(0, 0, 0, 0, 1, 1));
+        assertTrue(segment.append(0, 0, 0, 0, 1, 1));
+        assertTrue(segment.isFull());
+        assertFalse(segment.append(1, 0, 0, 0, 1, 1));
+        assertEquals(2, segment.sumDelta(0, 0, 2));
+    }
+
+    @Test
+    public void rejectsFilesThatAreNotSegments() throws IOException
+    {
+        File file = new File(folder.newFolder(), "garbage.ngj");
+        Files.write(file.toPath(), new byte[JournalSegment.HEADER_SIZE + JournalSegment.RECORD_SIZE]);
+        try
+        {
+            JournalSegment.open(file, false);
+            fail("Expected an unreadable segment");
+        }
+        catch (IOException e)
+        {
+            // Expected
+        }
+    }
+
+    // Records appended by the tests above: record i has tick i / 10, skill i % 3 and delta i + 1
+    private static long expectedSum(int skill, long from, long to)
+    {
+        long sum = 0;
+        for (int i = 0; i < RECORDS; i++)
+        {
+            long tick = i / 10;
+            if (i % 3 == skill && tick >= from && tick < to)
+            {
+                sum += i + 1;
+            }
+        }
+        return sum;
+    }
+}
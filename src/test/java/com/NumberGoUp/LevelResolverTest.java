@@ -0,0 +1,67 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+import org.junit.Test;
+
+public class LevelResolverTest
+{
+    private static final int LEVEL_99_XP = 13_034_431;
+
+    @Test
+    public void resolvesLevelsAtTheirBoundaries()
+    {
+        LevelResolver resolver = new LevelResolver(Experience.MAX_REAL_LEVEL);
+        assertEquals(1, resolver.getLevel(Skill.AGILITY, 0));
+        assertEquals(1, resolver.getLevel(Skill.AGILITY, 82));
+        assertEquals(2, resolver.getLevel(Skill.AGILITY, 83));
+        assertEquals(98, resolver.getLevel(Skill.AGILITY, LEVEL_99_XP - 1));
+        assertEquals(99, resolver.getLevel(Skill.AGILITY, LEVEL_99_XP));
+        assertEquals(99, resolver.getLevel(Skill.AGILITY, 200_000_000));
+
+        // Moving back down must not be answered from the cached bounds of a higher level
+        assertEquals(1, resolver.getLevel(Skill.AGILITY, 0));
+    }
+
+    @Test
+    public void resolvesEachSkillSeparately()
+    {
+        LevelResolver resolver = new LevelResolver(Experience.MAX_REAL_LEVEL);
+        assertEquals(99, resolver.getLevel(Skill.AGILITY, LEVEL_99_XP));
+        assertEquals(2, resolver.getLevel(Skill.COOKING, 100));
+        assertEquals(99, resolver.getLevel(Skill.AGILITY, LEVEL_99_XP + 5));
+    }
+
+    @Test
+    public void reportsXpToNextLevel()
+    {
+        LevelResolver resolver = new LevelResolver(Experience.MAX_REAL_LEVEL);
+        assertEquals(83, resolver.getXpToNextLevel(Skill.MINING, 0));
+        assertEquals(1, resolver.getXpToNextLevel(Skill.MINING, 82));
+        assertEquals(Experience.getXpForLevel(3) - 83, resolver.getXpToNextLevel(Skill.MINING, 83));
+        assertEquals(1, resolver.getXpToNextLevel(Skill.MINING, LEVEL_99_XP - 1));
+        assertEquals(0, resolver.getXpToNextLevel(Skill.MINING, LEVEL_99_XP));
+    }
+
+    @Test
+    public void virtualTableGoesPast99()
+    {
+        LevelResolver resolver = new LevelResolver(Experience.MAX_VIRT_LEVEL);
+        assertEquals(Experience.MAX_VIRT_LEVEL, resolver.getMaxLevel());
+        assertEquals(99, resolver.getLevel(Skill.MINING, LEVEL_99_XP));
+        assertEquals(Experience.getXpForLevel(100) - LEVEL_99_XP, resolver.getXpToNextLevel(Skill.MINING, LEVEL_99_XP));
+        assertEquals(Experience.MAX_VIRT_LEVEL, resolver.getLevel(Skill.MINING, 200_000_000));
+        assertEquals(0, resolver.getXpToNextLevel(Skill.MINING, 200_000_000));
+    }
+
+    @Test
+    public void calculatorUsesTheDisplayTables()
+    {
+        DisplayXpCalculator calculator = new DisplayXpCalculator();
+        assertEquals(Experience.MAX_REAL_LEVEL, calculator.getMaxDisplayLevel(false));
+        assertEquals(Experience.MAX_VIRT_LEVEL, calculator.getMaxDisplayLevel(true));
+        assertEquals(0, calculator.getXpToNextDisplayLevel(Skill.MINING, LEVEL_99_XP, false));
+        assertEquals(Experience.getXpForLevel(100) - LEVEL_99_XP, calculator.getXpToNextDisplayLevel(Skill.MINING, LEVEL_99_XP, true));
+    }
+}
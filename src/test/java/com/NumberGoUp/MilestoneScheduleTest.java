@@ -0,0 +1,89 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class MilestoneScheduleTest
+{
+    @Test
+    public void generatesGeometricPointsUpToTheCap()
+    {
+        MilestoneSchedule schedule = MilestoneSchedule.geometric(10_000, 2);
+        assertNotNull(schedule);
+        assertEquals(10_000, schedule.next(0));
+        assertEquals(20_000, schedule.next(10_000));
+        assertEquals(163_840_000, schedule.floor(MilestoneSchedule.MAX_XP));
+        assertEquals(Integer.MAX_VALUE, schedule.next(163_840_000));
+        assertEquals(15, schedule.crossings(0, MilestoneSchedule.MAX_XP));
+    }
+
+    @Test
+    public void keepsGeometricStartsNearTheCap()
+    {
+        MilestoneSchedule schedule = MilestoneSchedule.geometric(MilestoneSchedule.MAX_XP, 2);
+        assertNotNull(schedule);
+        assertEquals(1, schedule.crossings(0, MilestoneSchedule.MAX_XP));
+    }
+
+    @Test
+    public void rejectsGeometricSchedulesWithTooManyPoints()
+    {
+        assertNull(MilestoneSchedule.geometric(1, 1.0000001));
+        assertNull(MilestoneSchedule.geometric(1, 1.01));
+    }
+
+    @Test
+    public void rejectsInvalidGeometricSchedules()
+    {
+        assertNull(MilestoneSchedule.geometric(0, 2));
+        assertNull(MilestoneSchedule.geometric(-5, 2));
+        assertNull(MilestoneSchedule.geometric(MilestoneSchedule.MAX_XP + 1, 2));
+        assertNull(MilestoneSchedule.geometric(1000, 1));
+        assertNull(MilestoneSchedule.geometric(1000, 0.5));
+        assertNull(MilestoneSchedule.geometric(1000, Double.NaN));
+        assertNull(MilestoneSchedule.geometric(1000, Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void limitsTheNumberOfPoints()
+    {
+        int[] xp = new int[MilestoneSchedule.MAX_POINTS + 1];
+        for (int i = 0; i < xp.length; i++)
+        {
+            xp[i] = (i + 1) * 1000;
+        }
+        assertNull(MilestoneSchedule.points(xp));
+
+        MilestoneSchedule schedule = MilestoneSchedule.points(Arrays.copyOf(xp, MilestoneSchedule.MAX_POINTS));
+        assertNotNull(schedule);
+        assertEquals(MilestoneSchedule.MAX_POINTS, schedule.crossings(0, MilestoneSchedule.MAX_XP));
+    }
+
+    @Test
+    public void sortsAndFiltersPoints()
+    {
+        MilestoneSchedule schedule = MilestoneSchedule.points(500, -1, 100, 500, MilestoneSchedule.MAX_XP + 1);
+        assertNotNull(schedule);
+        assertEquals(100, schedule.next(0));
+        assertEquals(500, schedule.next(100));
+        assertEquals(2, schedule.crossings(0, MilestoneSchedule.MAX_XP));
+        assertNull(MilestoneSchedule.points(0, -3));
+    }
+
+    @Test
+    public void parsesConfigSpecs()
+    {
+        assertNotNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.GEOMETRIC, "10000 * 2"));
+        assertNotNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.LEVELS, "50, 70,90"));
+        assertNotNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.XP_POINTS, "100000,500000"));
+
+        assertNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.GEOMETRIC, "10000"));
+        assertNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.GEOMETRIC, "abc*2"));
+        assertNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.GEOMETRIC, "1*1.0000001"));
+        assertNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.LEVELS, "fifty"));
+        assertNull(MilestoneSchedule.parse(NumberGoUpConfig.ScheduleType.XP_POINTS, " "));
+    }
+}
@@ -0,0 +1,62 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import net.runelite.api.Experience;
+import net.runelite.api.Skill;
+import org.junit.After;
+import org.junit.Test;
+
+public class NumberGoUpPluginTest
+{
+    private final PluginHarness harness = new PluginHarness();
+
+    @After
+    public void tearDown() throws Exception
+    {
+        harness.stop();
+    }
+
+    @Test
+    public void noneModeFollowsRealStats() throws Exception
+    {
+        harness.seedAccount(1);
+        harness.config.set("resetMode", NumberGoUpConfig.ResetMode.NONE);
+        harness.start();
+        harness.tick();
+
+        harness.gainXp(Skill.WOODCUTTING, 25_000);
+        int hitpointsXp = harness.getRealXp(Skill.HITPOINTS);
+        harness.statChanged(Skill.HITPOINTS, hitpointsXp, 3);
+        harness.tick();
+        harness.tick();
+
+        FakeClient client = harness.fakeClient;
+        int woodcuttingXp = harness.getRealXp(Skill.WOODCUTTING);
+        assertEquals(woodcuttingXp, client.experiences[Skill.WOODCUTTING.ordinal()]);
+        assertEquals(Experience.getLevelForXp(woodcuttingXp), client.realLevels[Skill.WOODCUTTING.ordinal()]);
+        assertEquals(3, client.boostedLevels[Skill.HITPOINTS.ordinal()]);
+        assertEquals(Experience.getLevelForXp(hitpointsXp), client.realLevels[Skill.HITPOINTS.ordinal()]);
+    }
+
+    @Test
+    public void statChangesDrainTogetherOnTheNextFrame() throws Exception
+    {
+        harness.seedAccount(1);
+        harness.config.set("resetMode", NumberGoUpConfig.ResetMode.ALL_SKILLS);
+        harness.start();
+        harness.tick();
+
+        FakeClient client = harness.fakeClient;
+        long queued = client.queuedSkills;
+        harness.gainXp(Skill.STRENGTH, 40);
+        harness.gainXp(Skill.HITPOINTS, 13);
+        assertEquals(queued, client.queuedSkills);
+        assertEquals(harness.getRealXp(Skill.STRENGTH), client.experiences[Skill.STRENGTH.ordinal()]);
+
+        harness.runFrame();
+        assertEquals(queued + 2, client.queuedSkills);
+        assertEquals(40, client.experiences[Skill.STRENGTH.ordinal()]);
+        // Hitpoints starts from level 10's XP
+        assertEquals(1154 + 13, client.experiences[Skill.HITPOINTS.ordinal()]);
+    }
+}
@@ -0,0 +1,97 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import net.runelite.api.Skill;
+import org.junit.Test;
+
+public class ResetRuleTest
+{
+    private static final int LEVEL_99_XP = 13_034_431;
+
+    @Test
+    public void matchesSkillSets()
+    {
+        ResetRule combat = ResetRule.parse("combat");
+        assertTrue(combat.matches(Skill.ATTACK, 0));
+        assertTrue(combat.matches(Skill.PRAYER, 0));
+        assertFalse(combat.matches(Skill.WOODCUTTING, 0));
+
+        ResetRule listed = ResetRule.parse("skill in (Attack, strength)");
+        assertTrue(listed.matches(Skill.STRENGTH, 0));
+        assertFalse(listed.matches(Skill.DEFENCE, 0));
+
+        ResetRule all = ResetRule.parse("ALL and skill != cooking");
+        assertTrue(all.matches(Skill.FISHING, 0));
+        assertFalse(all.matches(Skill.COOKING, 0));
+        assertFalse(all.matches(Skill.OVERALL, 0));
+    }
+
+    @Test
+    public void matchesLevelAndXpComparisons()
+    {
+        ResetRule maxed = ResetRule.parse("realLevel >= 99");
+        assertTrue(maxed.matches(Skill.MINING, LEVEL_99_XP));
+        assertFalse(maxed.matches(Skill.MINING, LEVEL_99_XP - 1));
+
+        ResetRule below = ResetRule.parse("realXp < 1_000");
+        assertTrue(below.matches(Skill.MINING, 999));
+        assertFalse(below.matches(Skill.MINING, 1000));
+
+        ResetRule exact = ResetRule.parse("realLevel = 98");
+        assertTrue(exact.matches(Skill.MINING, LEVEL_99_XP - 1));
+        assertFalse(exact.matches(Skill.MINING, LEVEL_99_XP));
+    }
+
+    @Test
+    public void followsPrecedence()
+    {
+        // and binds tighter than or, not tighter than and
+        ResetRule rule = ResetRule.parse("attack or not combat and realLevel < 50");
+        assertTrue(rule.matches(Skill.ATTACK, LEVEL_99_XP));
+        assertTrue(rule.matches(Skill.AGILITY, 0));
+        assertFalse(rule.matches(Skill.AGILITY, LEVEL_99_XP));
+        assertFalse(rule.matches(Skill.DEFENCE, 0));
+
+        ResetRule grouped = ResetRule.parse("(attack or defence) and realXp > 100");
+        assertFalse(grouped.matches(Skill.ATTACK, 100));
+        assertTrue(grouped.matches(Skill.DEFENCE, 101));
+    }
+
+    @Test
+    public void ofMaskIgnoresOverall()
+    {
+        ResetRule rule = ResetRule.ofMask(~0L);
+        assertTrue(rule.matches(Skill.HUNTER, 0));
+        assertFalse(rule.matches(Skill.OVERALL, 0));
+    }
+
+    @Test
+    public void rejectsInvalidRules()
+    {
+        assertRejected("");
+        assertRejected("attack and");
+        assertRejected("(attack or defence");
+        assertRejected("attack defence");
+        assertRejected("notaskill");
+        assertRejected("overall");
+        assertRejected("skill ~ attack");
+        assertRejected("skill in attack");
+        assertRejected("realLevel >= lots");
+        assertRejected("realXp 5");
+    }
+
+    private static void assertRejected(String expression)
+    {
+        try
+        {
+            ResetRule.parse(expression);
+            fail("Expected '" + expression + "' to be rejected");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // Expected
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class StateCodecTest
+{
+    private static final int FIELDS = 3;
+    private static final int SKILLS = 24;
+
+    @Test
+    public void roundTripsValuesAndPresence()
+    {
+        long[][] values = new long[FIELDS][SKILLS];
+        long[] present = new long[FIELDS];
+        set(values, present, 0, 0, 0);
+        set(values, present, 0, 5, 1_234_567);
+        set(values, present, 1, 23, -42);
+        set(values, present, 2, 1, Long.MAX_VALUE);
+        set(values, present, 2, 2, Long.MIN_VALUE);
+
+        long[][] decoded = new long[FIELDS][SKILLS];
+        long[] decodedPresent = new long[FIELDS];
+        assertTrue(StateCodec.decode(StateCodec.encode(values, present), decoded, decodedPresent));
+        assertArrayEquals(present, decodedPresent);
+        for (int f = 0; f < FIELDS; f++)
+        {
+            assertArrayEquals(values[f], decoded[f]);
+        }
+    }
+
+    @Test
+    public void roundTripsEmptyState()
+    {
+        long[][] decoded = new long[FIELDS][SKILLS];
+        long[] decodedPresent = new long[FIELDS];
+        assertTrue(StateCodec.decode(StateCodec.encode(new long[FIELDS][SKILLS], new long[FIELDS]), decoded, decodedPresent));
+        assertArrayEquals(new long[FIELDS], decodedPresent);
+    }
+
+    @Test
+    public void skipsFieldsAndSkillsItDoesNotKnow()
+    {
+        long[][] values = new long[FIELDS][SKILLS];
+        long[] present = new long[FIELDS];
+        set(values, present, 0, 3, 7);
+        set(values, present, 2, 3, 9);
+
+        long[][] decoded = new long[1][4];
+        long[] decodedPresent = new long[1];
+        assertTrue(StateCodec.decode(StateCodec.encode(values, present), decoded, decodedPresent));
+        assertEquals(7, decoded[0][3]);
+        assertEquals(1L << 3, decodedPresent[0]);
+    }
+
+    @Test
+    public void rejectsCorruptedValue()
+    {
+        long[][] values = new long[FIELDS][SKILLS];
+        long[] present = new long[FIELDS];
+        set(values, present, 1, 10, 99_999);
+        char[] encoded = StateCodec.encode(values, present).toCharArray();
+        encoded[2] = encoded[2] == 'A' ? 'B' : 'A';
+
+        assertRejected(new String(encoded));
+    }
+
+    @Test
+    public void rejectsTruncatedValue()
+    {
+        long[][] values = new long[FIELDS][SKILLS];
+        long[] present = new long[FIELDS];
+        set(values, present, 0, 4, 500);
+        String encoded = StateCodec.encode(values, present);
+
+        assertRejected(encoded.substring(0, encoded.length() - 3));
+        assertRejected("");
+    }
+
+    @Test
+    public void rejectsGarbageAndUnknownVersions()
+    {
+        assertRejected("not base64!");
+
+        StateCodec.Writer out = new StateCodec.Writer();
+        out.writeByte(StateCodec.VERSION + 1);
+        out.writeVarLong(0);
+        assertRejected(StateCodec.seal(out));
+    }
+
+    private static void set(long[][] values, long[] present, int field, int skill, long value)
+    {
+        values[field][skill] = value;
+        present[field] |= 1L << skill;
+    }
+
+    // A rejected value must leave the arrays cleared, never half decoded
+    private static void assertRejected(String encoded)
+    {
+        long[][] decoded = new long[FIELDS][SKILLS];
+        long[] decodedPresent = new long[FIELDS];
+        decoded[0][0] = 1;
+        decodedPresent[0] = 1;
+        assertFalse(StateCodec.decode(encoded, decoded, decodedPresent));
+        assertArrayEquals(new long[FIELDS], decodedPresent);
+        assertEquals(0, decoded[0][0]);
+    }
+}
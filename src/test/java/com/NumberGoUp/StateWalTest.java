@@ -0,0 +1,163 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import net.runelite.api.Skill;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StateWalTest
+{
+    private static final String PROFILE = "profile";
+    private static final int FIELD_COUNT = StatePersister.Field.values().length;
+    private static final int SKILL_COUNT = Skill.values().length;
+    private static final int SKILL = Skill.MINING.ordinal();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final long[] present = new long[FIELD_COUNT];
+    private final long[][] staged = new long[FIELD_COUNT][SKILL_COUNT];
+
+    @Test
+    public void replaysRecordsInOrder() throws IOException
+    {
+        File root = folder.newFolder();
+        StateWal wal = new StateWal(new InlineExecutor(), root);
+        appendAll(wal, 10, 20, 30);
+
+        Replay replay = replay(new StateWal(new InlineExecutor(), root));
+        assertEquals(3, replay.count);
+        assertEquals(30, replay.last);
+    }
+
+    @Test
+    public void cutsATornTailAndCarriesOn() throws IOException
+    {
+        File root = folder.newFolder();
+        StateWal wal = new StateWal(new InlineExecutor(), root);
+        appendAll(wal, 10, 20, 30);
+
+        // Lose the second half of the last record, as if the write was interrupted
+        File file = wal.file(PROFILE);
+        truncate(file, file.length() - StateWal.RECORD_SIZE / 2);
+
+        StateWal reopened = new StateWal(new InlineExecutor(), root);
+        Replay replay = replay(reopened);
+        assertEquals(2, replay.count);
+        assertEquals(20, replay.last);
+        assertEquals(StateWal.HEADER_SIZE + 2 * StateWal.RECORD_SIZE, file.length());
+
+        // Appends continue the sequence from the last intact record
+        appendAll(reopened, 40);
+        replay = replay(new StateWal(new InlineExecutor(), root));
+        assertEquals(3, replay.count);
+        assertEquals(40, replay.last);
+    }
+
+    @Test
+    public void stopsAtACorruptRecord() throws IOException
+    {
+        File root = folder.newFolder();
+        StateWal wal = new StateWal(new InlineExecutor(), root);
+        appendAll(wal, 10, 20, 30);
+
+        try (RandomAccessFile file = new RandomAccessFile(wal.file(PROFILE), "rw"))
+        {
+            long offset = StateWal.HEADER_SIZE + StateWal.RECORD_SIZE + 12;
+            file.seek(offset);
+            int b = file.read();
+            file.seek(offset);
+            file.write(b ^ 0xFF);
+        }
+
+        Replay replay = replay(new StateWal(new InlineExecutor(), root));
+        assertEquals(1, replay.count);
+        assertEquals(10, replay.last);
+    }
+
+    @Test
+    public void discardsALogWithABadHeader() throws IOException
+    {
+        File root = folder.newFolder();
+        StateWal wal = new StateWal(new InlineExecutor(), root);
+        appendAll(wal, 10);
+        truncate(wal.file(PROFILE), StateWal.HEADER_SIZE - 1);
+
+        assertEquals(0, replay(new StateWal(new InlineExecutor(), root)).count);
+    }
+
+    @Test
+    public void checkpointReplacesTheLog() throws IOException
+    {
+        File root = folder.newFolder();
+        StateWal wal = new StateWal(new InlineExecutor(), root);
+        appendAll(wal, 10, 20, 30);
+
+        staged[0][SKILL] = 50;
+        wal.checkpoint(PROFILE, present, staged);
+        assertEquals(StateWal.HEADER_SIZE + (SKILL_COUNT - 1) * StateWal.RECORD_SIZE, wal.file(PROFILE).length());
+
+        appendAll(wal, 60);
+        Replay replay = replay(new StateWal(new InlineExecutor(), root));
+        assertEquals(SKILL_COUNT, replay.count);
+        assertEquals(60, replay.last);
+    }
+
+    private void appendAll(StateWal wal, long... values)
+    {
+        present[0] |= 1L << SKILL;
+        for (long value : values)
+        {
+            staged[0][SKILL] = value;
+            wal.append(PROFILE, SKILL, present, staged);
+        }
+        wal.sync();
+    }
+
+    private static Replay replay(StateWal wal)
+    {
+        Replay replay = new Replay();
+        replay.count = wal.replay(PROFILE, (skill, present, values) ->
+        {
+            if (skill == SKILL)
+            {
+                replay.last = values[0];
+            }
+        });
+        return replay;
+    }
+
+    private static void truncate(File file, long length) throws IOException
+    {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"))
+        {
+            raf.setLength(length);
+        }
+    }
+
+    private static final class Replay
+    {
+        int count;
+        long last;
+    }
+
+    // Runs writes on the calling thread so the log is on disk as soon as sync returns
+    private static final class InlineExecutor extends ScheduledThreadPoolExecutor
+    {
+        InlineExecutor()
+        {
+            super(1);
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            command.run();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.NumberGoUp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import net.runelite.api.Skill;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class XpJournalTest
+{
+    private static final String PROFILE = "profile";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void answersRangeAndSessionQueries() throws IOException
+    {
+        XpJournal journal = open(folder.newFolder());
+        for (int i = 0; i < 10; i++)
+        {
+            journal.append(Skill.MINING, 100, 50);
+            journal.append(Skill.SMITHING, 10, 40);
+            journal.tick();
+        }
+
+        assertTrue(journal.isOpen());
+        assertEquals(10, journal.getTick());
+        assertEquals(1000, journal.xpGained(Skill.MINING, 0, 10));
+        assertEquals(300, journal.xpGained(Skill.MINING, 2, 5));
+        assertEquals(0, journal.xpGained(Skill.MINING, 10, 20));
+
+        XpJournal.SessionSummary summary = journal.summarize(journal.getSession());
+        assertEquals(1000, summary.xp[Skill.MINING.ordinal()]);
+        assertEquals(1100, summary.totalXp);
+        assertEquals(0, summary.firstTick);
+        assertEquals(9, summary.lastTick);
+        assertTrue(journal.summarize(journal.getSession() + 1).isEmpty());
+    }
+
+    @Test
+    public void reloadCarriesOnTicksAndSessions() throws IOException
+    {
+        File root = folder.newFolder();
+        XpJournal journal = open(root);
+        journal.append(Skill.MINING, 100, 50);
+        journal.tick();
+        journal.tick();
+        journal.append(Skill.MINING, 100, 50);
+        journal.close();
+        assertFalse(journal.isOpen());
+
+        journal.open(journal.load(PROFILE));
+        assertEquals(3, journal.getTick());
+        assertEquals(1, journal.getSession());
+        journal.append(Skill.MINING, 5, 50);
+
+        assertEquals(205, journal.xpGained(Skill.MINING, 0, 4));
+        assertEquals(200, journal.summarize(0).totalXp);
+        assertEquals(5, journal.summarize(1).totalXp);
+        assertEquals(1, rawSegments(root).length);
+    }
+
+    @Test
+    public void reopeningTheOpenProfileDropsTheLoadedCopy() throws IOException
+    {
+        File root = folder.newFolder();
+        XpJournal journal = new XpJournal(new InlineExecutor(), root);
+        journal.open(journal.load(PROFILE));
+
+        // Nothing has been written yet, so this load creates a second segment of its own
+        journal.open(journal.load(PROFILE));
+        assertEquals(1, rawSegments(root).length);
+
+        journal.append(Skill.MINING, 7, 1);
+        assertEquals(7, journal.xpGained(Skill.MINING, 0, 1));
+    }
+
+    @Test
+    public void rollsWithinATickAndReloadsInOrder() throws IOException
+    {
+        File root = folder.newFolder();
+        XpJournal journal = open(root);
+        for (int i = 0; i < XpJournal.RECORDS_PER_SEGMENT + 10; i++)
+        {
+            journal.append(Skill.AGILITY, 1, 1);
+        }
+        journal.close();
+
+        // Both segments start in tick 0, the newer one must still sort last and be appended to
+        String[] names = rawSegments(root);
+        assertEquals(2, names.length);
+        journal.open(journal.load(PROFILE));
+        journal.append(Skill.AGILITY, 1, 1);
+        assertEquals(2, rawSegments(root).length);
+        assertEquals(XpJournal.RECORDS_PER_SEGMENT + 11, journal.xpGained(Skill.AGILITY, 0, 2));
+    }
+
+    @Test
+    public void compactsOldSegmentsWithoutLosingXp() throws IOException
+    {
+        File root = folder.newFolder();
+        XpJournal journal = open(root);
+        int segments = XpJournal.RAW_SEGMENTS_KEPT + 3;
+        long records = (long) segments * XpJournal.RECORDS_PER_SEGMENT;
+        for (long i = 0; i < records; i++)
+        {
+            journal.append(i % 2 == 0 ? Skill.FISHING : Skill.COOKING, 3, 1);
+            journal.tick();
+        }
+
+        File dir = new File(root, PROFILE);
+        String[] compacted = dir.list((d, name) -> name.endsWith(".ngc"));
+        assertTrue(compacted.length > 0);
+        // The kept raw segments, the full active one and the spare created to roll over to
+        assertEquals(XpJournal.RAW_SEGMENTS_KEPT + 2, rawSegments(root).length);
+
+        long fishing = records / 2 * 3;
+        assertEquals(fishing, journal.xpGained(Skill.FISHING, 0, records));
+        // Bucket-aligned ranges read the same from compacted and raw segments
+        assertEquals(XpJournal.COMPACT_BUCKET_TICKS / 2 * 3, journal.xpGained(Skill.FISHING, 0, XpJournal.COMPACT_BUCKET_TICKS));
+
+        journal.close();
+        journal.open(journal.load(PROFILE));
+        assertEquals(records, journal.getTick());
+        assertEquals(fishing, journal.xpGained(Skill.FISHING, 0, records));
+        assertEquals(fishing * 2, journal.summarize(0).totalXp);
+    }
+
+    private static XpJournal open(File root)
+    {
+        XpJournal journal = new XpJournal(new InlineExecutor(), root);
+        journal.open(journal.load(PROFILE));
+        return journal;
+    }
+
+    private static String[] rawSegments(File root)
+    {
+        String[] names = new File(root, PROFILE).list((dir, name) -> name.endsWith(".ngj"));
+        Arrays.sort(names);
+        return names;
+    }
+
+    // Runs segment creation, forcing and compaction on the calling thread
+    private static final class InlineExecutor extends ScheduledThreadPoolExecutor
+    {
+        InlineExecutor()
+        {
+            super(1);
+        }
+
+        @Override
+        public void execute(Runnable command)
+        {
+            command.run();
+        }
+    }
+}